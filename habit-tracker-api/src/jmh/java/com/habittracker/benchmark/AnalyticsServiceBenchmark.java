@@ -0,0 +1,101 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.HabitTrackerApplication;
+import com.habittracker.dto.AnalyticsResponse;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.entity.User;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.AnalyticsService;
+import com.habittracker.service.CompletionCalendarService;
+import com.habittracker.service.StatsRollupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsServiceBenchmark {
+    
+    @Param({"5", "40"})
+    private int habitCount;
+    
+    @Param({"365"})
+    private int historyDays;
+    
+    private ConfigurableApplicationContext context;
+    private AnalyticsService analyticsService;
+    private Long userId;
+    private Long habitId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as arguments so they take precedence over application.properties
+        context = new SpringApplicationBuilder(HabitTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:analytics-benchmark;DB_CLOSE_ON_EXIT=FALSE",
+                        "--app.analytics.cache.enabled=false",
+                        "--logging.level.root=WARN");
+        
+        analyticsService = context.getBean(AnalyticsService.class);
+        seed();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public AnalyticsResponse userAnalytics() {
+        return analyticsService.getUserAnalytics(userId);
+    }
+    
+    @Benchmark
+    public AnalyticsResponse habitAnalytics() {
+        return analyticsService.getHabitAnalytics(habitId, userId);
+    }
+    
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        HabitRepository habitRepository = context.getBean(HabitRepository.class);
+        HabitEntryRepository habitEntryRepository = context.getBean(HabitEntryRepository.class);
+        
+        User user = userRepository.save(new User("benchmark", "benchmark@example.com", "benchmark-password"));
+        userId = user.getId();
+        
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int h = 0; h < habitCount; h++) {
+            Habit habit = habitRepository.save(new Habit("Habit " + h, "Benchmark habit " + h, user));
+            habitId = habit.getId();
+            
+            List<HabitEntry> entries = new ArrayList<>();
+            for (int d = 0; d < historyDays; d++) {
+                if (random.nextInt(10) < 7) {
+                    HabitEntry entry = new HabitEntry(today.minusDays(d), 1, habit);
+                    entry.setUserId(userId);
+                    entries.add(entry);
+                }
+            }
+            habitEntryRepository.saveAll(entries);
+        }
+        
+        // Derived tables are normally maintained per write, rebuild them once for the seeded history
+        context.getBean(StatsRollupService.class).rebuildUser(userId);
+        context.getBean(CompletionCalendarService.class).rebuildUser(userId);
+    }
+}
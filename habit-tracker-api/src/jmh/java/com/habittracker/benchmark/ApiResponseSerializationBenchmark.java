@@ -0,0 +1,71 @@
+package com.habittracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habittracker.dto.AnalyticsResponse;
+import com.habittracker.dto.ApiResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+    
+    @Param({"5", "40"})
+    private int habitCount;
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse<AnalyticsResponse> response;
+    
+    @Setup
+    public void setUp() {
+        // Same date handling as the application's auto-configured mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        
+        AnalyticsResponse analytics = new AnalyticsResponse();
+        analytics.setTotalHabits((long) habitCount);
+        analytics.setActiveHabits((long) habitCount);
+        analytics.setCompletedEntriesThisWeek(5L * habitCount);
+        analytics.setCompletedEntriesThisMonth(22L * habitCount);
+        analytics.setWeeklyCompletionRate(71.4);
+        analytics.setMonthlyCompletionRate(73.3);
+        analytics.setLongestStreak(45);
+        analytics.setCurrentStreak(12);
+        
+        List<AnalyticsResponse.HabitStreakInfo> streaks = new ArrayList<>();
+        Map<String, Integer> completionCounts = new HashMap<>();
+        for (int i = 0; i < habitCount; i++) {
+            streaks.add(new AnalyticsResponse.HabitStreakInfo((long) i, "Habit " + i, i % 14, i % 30));
+            completionCounts.put("Habit " + i, 100 + i);
+        }
+        analytics.setHabitStreaks(streaks);
+        analytics.setHabitCompletionCounts(completionCounts);
+        
+        Map<LocalDate, Integer> daily = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 30; i++) {
+            daily.put(today.minusDays(i), i % habitCount);
+        }
+        analytics.setDailyCompletions(daily);
+        
+        response = ApiResponse.success("Analytics retrieved successfully", analytics);
+    }
+    
+    @Benchmark
+    public byte[] serializeAnalyticsResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,199 @@
+package com.habittracker.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.habittracker.HabitTrackerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// In-JVM load test: boots the API once per thread mode on a random port and drives a burst of
+// check-ins (POST /api/habits/{id}/entries) and analytics reads (GET /api/analytics) against it.
+// Run with: mvn -Pbenchmark test-compile exec:exec@load-test
+public class CheckInLoadTest {
+    
+    private static final int USERS = 50;
+    private static final int HABITS_PER_USER = 3;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    
+    private String baseUrl;
+    private final List<String> tokens = new ArrayList<>();
+    private final List<long[]> habitIds = new ArrayList<>();
+    
+    public CheckInLoadTest(int concurrency, Duration warmup, Duration duration) {
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 20));
+        List<String> modes = Arrays.asList(System.getProperty("loadtest.modes", "platform,virtual").split(","));
+        File output = new File(System.getProperty("loadtest.output", "target/loadtest-result.json"));
+        
+        ObjectMapper objectMapper = new ObjectMapper();
+        ArrayNode results = objectMapper.createArrayNode();
+        
+        for (String mode : modes) {
+            if ("virtual".equals(mode) && Runtime.version().feature() < 21) {
+                System.out.printf("Skipping virtual mode: Java %d has no virtual threads (needs 21+)%n", Runtime.version().feature());
+                continue;
+            }
+            
+            CheckInLoadTest test = new CheckInLoadTest(concurrency, warmup, duration);
+            results.addAll(test.run(mode));
+        }
+        
+        output.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output, results);
+        System.out.println("Results written to " + output.getPath());
+    }
+    
+    private ArrayNode run(String mode) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN"));
+        if ("virtual".equals(mode)) {
+            arguments.add("--spring.profiles.active=virtual-threads");
+        }
+        
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HabitTrackerApplication.class)
+                .run(arguments.toArray(new String[0]))) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            seed(mode);
+            
+            // Warm-up pass lets the JIT and the connection pool settle, its numbers are discarded
+            drive(warmup);
+            Result result = drive(duration);
+            
+            ArrayNode rows = objectMapper.createArrayNode();
+            rows.add(row(mode, "POST /api/habits/{id}/entries", result.checkIns));
+            rows.add(row(mode, "GET /api/analytics", result.analytics));
+            for (JsonNode row : rows) {
+                System.out.println(row);
+            }
+            return rows;
+        }
+    }
+    
+    private void seed(String mode) throws Exception {
+        for (int u = 0; u < USERS; u++) {
+            String username = "load" + mode + u;
+            JsonNode registered = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/register"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"email\":\"" + username
+                            + "@example.com\",\"password\":\"loadtest\",\"firstName\":\"Load\",\"lastName\":\"Test\"}"))
+                    .build());
+            String token = "Bearer " + registered.get("data").get("token").asText();
+            
+            long[] habits = new long[HABITS_PER_USER];
+            for (int h = 0; h < HABITS_PER_USER; h++) {
+                JsonNode habit = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/habits"))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", token)
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Habit " + h + "\",\"frequencyType\":\"DAILY\",\"targetCount\":1000000}"))
+                        .build());
+                habits[h] = habit.get("data").get("id").asLong();
+            }
+            
+            tokens.add(token);
+            habitIds.add(habits);
+        }
+    }
+    
+    private Result drive(Duration length) throws Exception {
+        Result result = new Result();
+        long deadline = System.nanoTime() + length.toNanos();
+        LocalDate today = LocalDate.now();
+        
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            futures.add(workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int user = random.nextInt(tokens.size());
+                    HttpRequest request;
+                    LatencySeries series;
+                    if (random.nextBoolean()) {
+                        long habitId = habitIds.get(user)[random.nextInt(HABITS_PER_USER)];
+                        request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/habits/" + habitId + "/entries"))
+                                .header("Content-Type", "application/json")
+                                .header("Authorization", tokens.get(user))
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"entryDate\":\"" + today.minusDays(random.nextInt(30)) + "\",\"completionCount\":1}"))
+                                .build();
+                        series = result.checkIns;
+                    } else {
+                        request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/analytics"))
+                                .header("Authorization", tokens.get(user))
+                                .GET()
+                                .build();
+                        series = result.analytics;
+                    }
+                    
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        series.record(System.nanoTime() - start, response.statusCode());
+                    } catch (Exception e) {
+                        series.record(System.nanoTime() - start, -1);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+        return result;
+    }
+    
+    private JsonNode send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+    
+    private ObjectNode row(String mode, String operation, LatencySeries series) {
+        ObjectNode row = objectMapper.createObjectNode();
+        row.put("mode", mode);
+        row.put("operation", operation);
+        row.setAll(series.toJson(objectMapper, duration));
+        return row;
+    }
+    
+    private static class Result {
+        private final LatencySeries checkIns = new LatencySeries();
+        private final LatencySeries analytics = new LatencySeries();
+    }
+}
@@ -0,0 +1,366 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.HabitTrackerApplication;
+import com.habittracker.entity.FrequencyType;
+import com.habittracker.service.CompletionCalendar;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// Seeds users, habits and years of daily entries through JDBC batches, together with everything the app derives
+// from entries (streak columns, completion calendar words, daily and per-habit rollups), so the app starts against
+// a consistent dataset without replaying history through the API. Every user's password is PASSWORD.
+// Run standalone against a persistent database with: mvn -Pbenchmark test-compile exec:exec@seed
+public class DatasetGenerator {
+    
+    public static final String PASSWORD = "loadtest";
+    
+    private static final int USER_CHUNK = 50;
+    private static final int BATCH_SIZE = 5000;
+    
+    private static final String[] HABIT_NAMES = {
+            "Drink water", "Morning run", "Read", "Meditate", "Stretch", "Journal", "Floss", "Walk the dog",
+            "Practice guitar", "Learn Spanish", "No sugar", "Sleep by 11", "Cook dinner", "Call family", "Gym",
+            "Take vitamins", "Tidy desk", "Inbox zero", "Yoga", "Cycle to work", "Plan tomorrow", "No social media",
+            "Language drills", "Piano scales", "Water plants", "Cold shower", "Push-ups", "Budget review"};
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Profile profile;
+    private final String passwordHash;
+    private final LocalDate today = LocalDate.now();
+    
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, Profile profile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.profile = profile;
+        // BCrypt is deliberately slow, one hash shared by every generated user keeps seeding fast
+        this.passwordHash = passwordEncoder.encode(PASSWORD);
+    }
+    
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HabitTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            DatasetGenerator generator = new DatasetGenerator(context.getBean(JdbcTemplate.class),
+                    context.getBean(PasswordEncoder.class), Profile.fromSystemProperties());
+            System.out.println(generator.generate(System.getProperty("dataset.username-prefix", "user")));
+        }
+    }
+    
+    // Usernames are prefix + index, so several datasets can share one schema
+    public Summary generate(String usernamePrefix) {
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        Random random = new Random(profile.seed);
+        
+        for (int first = 0; first < profile.users; first += USER_CHUNK) {
+            List<GeneratedUser> users = new ArrayList<>();
+            for (int u = first; u < Math.min(first + USER_CHUNK, profile.users); u++) {
+                users.add(generateUser(usernamePrefix + u, random));
+            }
+            insert(users, summary);
+            summary.usernames.addAll(users.stream().map(user -> user.username).toList());
+        }
+        
+        summary.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return summary;
+    }
+    
+    private GeneratedUser generateUser(String username, Random random) {
+        GeneratedUser user = new GeneratedUser(username);
+        // Log-normal habit counts: most users track a handful to a couple of dozen habits, a few track many more
+        int habitCount = (int) Math.round(Math.exp(Math.log(profile.habitsPerUser) + random.nextGaussian() * 0.5));
+        habitCount = Math.max(1, Math.min(habitCount, profile.maxHabitsPerUser));
+        
+        for (int h = 0; h < habitCount; h++) {
+            String name = HABIT_NAMES[h % HABIT_NAMES.length] + (h >= HABIT_NAMES.length ? " " + (h / HABIT_NAMES.length + 1) : "");
+            user.habits.add(generateHabit(name, random));
+        }
+        user.createdAt = user.habits.stream().map(habit -> habit.startDate).min(LocalDate::compareTo).orElse(today);
+        return user;
+    }
+    
+    private GeneratedHabit generateHabit(String name, Random random) {
+        GeneratedHabit habit = new GeneratedHabit(name);
+        habit.frequencyType = random.nextDouble() < 0.85 ? FrequencyType.DAILY : random.nextDouble() < 0.8 ? FrequencyType.WEEKLY : FrequencyType.MONTHLY;
+        habit.targetCount = random.nextDouble() < 0.8 ? 1 : 2 + random.nextInt(4);
+        habit.active = random.nextDouble() >= profile.archivedRate;
+        // Habits are picked up throughout the history window, so older accounts carry longer histories
+        habit.startDate = today.minusDays(random.nextInt(profile.historyDays));
+        
+        double adherence = Math.max(0.05, Math.min(0.98, profile.adherenceMean + random.nextGaussian() * profile.adherenceSpread));
+        int days = (int) (today.toEpochDay() - habit.startDate.toEpochDay()) + 1;
+        // Archived habits stop being logged somewhere in their history
+        int lastDay = habit.active ? days : Math.max(1, (int) (days * random.nextDouble()));
+        habit.counts = new int[days];
+        int lapseLeft = 0;
+        
+        for (int d = 0; d < days; d++) {
+            habit.counts[d] = -1;
+            if (d >= lastDay) {
+                continue;
+            }
+            if (lapseLeft > 0) {
+                lapseLeft--;
+                continue;
+            }
+            if (random.nextDouble() < profile.lapseRate) {
+                // Holidays, illness, losing interest: multi-day gaps with no entries at all
+                lapseLeft = (int) Math.ceil(-Math.log(1 - random.nextDouble()) * profile.meanLapseDays);
+                continue;
+            }
+            
+            LocalDate date = habit.startDate.plusDays(d);
+            boolean weekend = date.getDayOfWeek().getValue() >= 6;
+            if (random.nextDouble() < adherence * (weekend ? profile.weekendFactor : 1)) {
+                habit.counts[d] = habit.targetCount;
+            } else if (random.nextDouble() < profile.partialRate) {
+                habit.counts[d] = random.nextInt(habit.targetCount);
+            }
+        }
+        computeStreaks(habit);
+        return habit;
+    }
+    
+    // Mirrors StreakService: the tracked run contains the latest completed day and is current while it reaches yesterday
+    private void computeStreaks(GeneratedHabit habit) {
+        int best = 0;
+        int run = 0;
+        int latestEnd = -1;
+        int latestRun = 0;
+        for (int d = 0; d < habit.counts.length; d++) {
+            if (habit.isCompleted(d)) {
+                run++;
+                best = Math.max(best, run);
+                latestEnd = d;
+                latestRun = run;
+            } else {
+                run = 0;
+            }
+        }
+        
+        habit.bestStreak = best;
+        if (latestEnd >= 0) {
+            habit.streakEndDate = habit.startDate.plusDays(latestEnd);
+            habit.streakStartDate = habit.streakEndDate.minusDays(latestRun - 1L);
+            habit.streakCount = !habit.streakEndDate.isBefore(today.minusDays(1)) ? latestRun : 0;
+        }
+    }
+    
+    private void insert(List<GeneratedUser> users, Summary summary) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        List<Object[]> userRows = new ArrayList<>();
+        for (GeneratedUser user : users) {
+            userRows.add(new Object[] {user.username, user.username + "@example.com", passwordHash, "Load", "Test", true,
+                    Timestamp.valueOf(user.createdAt.atStartOfDay()), now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, first_name, last_name, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", userRows);
+        summary.users += users.size();
+        
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, username FROM users WHERE username IN (" + placeholders(users.size()) + ")",
+                rs -> { userIds.put(rs.getString("username"), rs.getLong("id")); },
+                users.stream().map(user -> user.username).toArray());
+        
+        List<Object[]> habitRows = new ArrayList<>();
+        for (GeneratedUser user : users) {
+            user.id = userIds.get(user.username);
+            for (GeneratedHabit habit : user.habits) {
+                habitRows.add(new Object[] {habit.name, "Generated habit", habit.frequencyType.name(), habit.targetCount, habit.active,
+                        habit.streakCount, habit.bestStreak, date(habit.streakStartDate), date(habit.streakEndDate),
+                        Timestamp.valueOf(habit.startDate.atStartOfDay()), now, user.id});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO habits (name, description, frequency_type, target_count, is_active, streak_count, best_streak, streak_start_date, streak_end_date, created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", habitRows);
+        summary.habits += habitRows.size();
+        
+        Map<String, Long> habitIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, name FROM habits WHERE user_id IN (" + placeholders(users.size()) + ")",
+                rs -> { habitIds.put(rs.getLong("user_id") + "/" + rs.getString("name"), rs.getLong("id")); },
+                users.stream().map(user -> user.id).toArray());
+        
+        BatchWriter entries = new BatchWriter("INSERT INTO habit_entries (habit_id, user_id, entry_date, completion_count, is_completed, notes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        BatchWriter words = new BatchWriter("INSERT INTO habit_completion_words (habit_id, word_index, bits) VALUES (?, ?, ?)");
+        BatchWriter habitStats = new BatchWriter("INSERT INTO habit_stats (habit_id, user_id, completed_count, completion_sum) VALUES (?, ?, ?, ?)");
+        BatchWriter dailyStats = new BatchWriter("INSERT INTO user_daily_stats (user_id, stat_date, completed_count, completion_sum) VALUES (?, ?, ?, ?)");
+        
+        for (GeneratedUser user : users) {
+            Map<LocalDate, long[]> daily = new TreeMap<>();
+            for (GeneratedHabit habit : user.habits) {
+                Long habitId = habitIds.get(user.id + "/" + habit.name);
+                Map<Long, Long> habitWords = new TreeMap<>();
+                long completed = 0;
+                long completionSum = 0;
+                
+                for (int d = 0; d < habit.counts.length; d++) {
+                    if (habit.counts[d] < 0) {
+                        continue;
+                    }
+                    LocalDate date = habit.startDate.plusDays(d);
+                    // Logged in the evening of the day itself
+                    Timestamp loggedAt = Timestamp.valueOf(date.atTime(LocalTime.of(20, 0)));
+                    entries.add(habitId, user.id, Date.valueOf(date), habit.counts[d], habit.isCompleted(d), null, loggedAt, loggedAt);
+                    
+                    if (habit.isCompleted(d)) {
+                        completed++;
+                        completionSum += habit.counts[d];
+                        habitWords.merge(CompletionCalendar.wordIndexOf(date), 1L << CompletionCalendar.bitIndexOf(date), (a, b) -> a | b);
+                        long[] day = daily.computeIfAbsent(date, key -> new long[2]);
+                        day[0]++;
+                        day[1] += habit.counts[d];
+                    }
+                }
+                
+                habitWords.forEach((wordIndex, bits) -> words.add(habitId, wordIndex, bits));
+                if (completed > 0) {
+                    habitStats.add(habitId, user.id, completed, completionSum);
+                }
+            }
+            daily.forEach((date, day) -> dailyStats.add(user.id, Date.valueOf(date), day[0], day[1]));
+        }
+        
+        summary.entries += entries.flush();
+        summary.completionWords += words.flush();
+        summary.rollupRows += habitStats.flush() + dailyStats.flush();
+    }
+    
+    private static Date date(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    // Knobs of the generated distributions, overridable with -Ddataset.<name>
+    public static class Profile {
+        int users = 200;
+        int habitsPerUser = 20;
+        int maxHabitsPerUser = 80;
+        int historyDays = 730;
+        double adherenceMean = 0.65;
+        double adherenceSpread = 0.2;
+        double weekendFactor = 0.8;
+        double partialRate = 0.15;
+        double lapseRate = 0.01;
+        double meanLapseDays = 7;
+        double archivedRate = 0.1;
+        long seed = 42;
+        
+        public static Profile fromSystemProperties() {
+            Profile profile = new Profile();
+            profile.users = Integer.getInteger("dataset.users", profile.users);
+            profile.habitsPerUser = Integer.getInteger("dataset.habits-per-user", profile.habitsPerUser);
+            profile.maxHabitsPerUser = Integer.getInteger("dataset.max-habits-per-user", profile.maxHabitsPerUser);
+            profile.historyDays = Integer.getInteger("dataset.history-days", profile.historyDays);
+            profile.adherenceMean = doubleProperty("dataset.adherence-mean", profile.adherenceMean);
+            profile.adherenceSpread = doubleProperty("dataset.adherence-spread", profile.adherenceSpread);
+            profile.weekendFactor = doubleProperty("dataset.weekend-factor", profile.weekendFactor);
+            profile.partialRate = doubleProperty("dataset.partial-rate", profile.partialRate);
+            profile.lapseRate = doubleProperty("dataset.lapse-rate", profile.lapseRate);
+            profile.meanLapseDays = doubleProperty("dataset.mean-lapse-days", profile.meanLapseDays);
+            profile.archivedRate = doubleProperty("dataset.archived-rate", profile.archivedRate);
+            profile.seed = Long.getLong("dataset.seed", profile.seed);
+            return profile;
+        }
+        
+        private static double doubleProperty(String name, double defaultValue) {
+            String value = System.getProperty(name);
+            return value != null ? Double.parseDouble(value) : defaultValue;
+        }
+    }
+    
+    public static class Summary {
+        final List<String> usernames = new ArrayList<>();
+        long users;
+        long habits;
+        long entries;
+        long completionWords;
+        long rollupRows;
+        long elapsedMillis;
+        
+        public List<String> getUsernames() {
+            return usernames;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Seeded %d users, %d habits, %d entries, %d calendar words and %d rollup rows in %.1f s (%.0f entries/s)",
+                    users, habits, entries, completionWords, rollupRows, elapsedMillis / 1000.0, entries * 1000.0 / Math.max(elapsedMillis, 1));
+        }
+    }
+    
+    private class BatchWriter {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>();
+        private long written;
+        
+        BatchWriter(String sql) {
+            this.sql = sql;
+        }
+        
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+        
+        long flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                written += rows.size();
+                rows.clear();
+            }
+            return written;
+        }
+    }
+    
+    private static class GeneratedUser {
+        final String username;
+        final List<GeneratedHabit> habits = new ArrayList<>();
+        LocalDate createdAt;
+        Long id;
+        
+        GeneratedUser(String username) {
+            this.username = username;
+        }
+    }
+    
+    private static class GeneratedHabit {
+        final String name;
+        FrequencyType frequencyType;
+        int targetCount;
+        boolean active;
+        LocalDate startDate;
+        // Completion count per day since startDate, -1 where nothing was logged
+        int[] counts;
+        int streakCount;
+        int bestStreak;
+        LocalDate streakStartDate;
+        LocalDate streakEndDate;
+        
+        GeneratedHabit(String name) {
+            this.name = name;
+        }
+        
+        boolean isCompleted(int day) {
+            return counts[day] >= targetCount;
+        }
+    }
+}
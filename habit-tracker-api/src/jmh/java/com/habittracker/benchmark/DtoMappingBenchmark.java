@@ -0,0 +1,71 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.dto.HabitEntryResponse;
+import com.habittracker.dto.HabitResponse;
+import com.habittracker.entity.FrequencyType;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.service.HabitEntryService;
+import com.habittracker.service.HabitService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+    
+    private HabitService habitService;
+    private HabitEntryService habitEntryService;
+    private MethodHandle habitMapper;
+    private MethodHandle habitEntryMapper;
+    private Habit habit;
+    private HabitEntry habitEntry;
+    
+    @Setup
+    public void setUp() throws Exception {
+        habitService = new HabitService();
+        habitEntryService = new HabitEntryService();
+        habitMapper = unreflect(HabitService.class, Habit.class);
+        habitEntryMapper = unreflect(HabitEntryService.class, HabitEntry.class);
+        
+        habit = new Habit("Morning run", "Run 5km before breakfast", null);
+        habit.setId(1L);
+        habit.setFrequencyType(FrequencyType.DAILY);
+        habit.setStreakCount(12);
+        habit.setBestStreak(30);
+        habit.setCreatedAt(LocalDateTime.now().minusDays(90));
+        habit.setUpdatedAt(LocalDateTime.now());
+        
+        habitEntry = new HabitEntry(LocalDate.now(), 1, habit);
+        habitEntry.setId(1L);
+        habitEntry.setNotes("Felt great");
+        habitEntry.setCreatedAt(LocalDateTime.now());
+        habitEntry.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    @Benchmark
+    public HabitResponse mapHabit() throws Throwable {
+        return (HabitResponse) habitMapper.invoke(habitService, habit);
+    }
+    
+    @Benchmark
+    public HabitEntryResponse mapHabitEntry() throws Throwable {
+        return (HabitEntryResponse) habitEntryMapper.invoke(habitEntryService, habitEntry);
+    }
+    
+    private static MethodHandle unreflect(Class<?> service, Class<?> argument) throws Exception {
+        Method method = service.getDeclaredMethod("mapToResponse", argument);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+}
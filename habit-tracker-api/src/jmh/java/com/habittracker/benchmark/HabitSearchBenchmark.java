@@ -0,0 +1,88 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.HabitTrackerApplication;
+import com.habittracker.dto.HabitResponse;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.User;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.HabitService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Habit search for a user with many active and archived habits: the previous LIKE %name% scan against the
+// trigram index plus primary-key lookup now behind HabitService.searchHabits. The index is built by the first search.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HabitSearchBenchmark {
+    
+    private static final String[] WORDS = {"morning", "evening", "walk", "run", "read", "journal", "stretch", "water",
+            "meditate", "study", "practice", "guitar", "spanish", "floss", "plan", "review", "cook", "sleep"};
+    
+    @Param({"500"})
+    private int habitCount;
+    
+    // Substring of a few names, a word prefix, and a word no habit contains
+    @Param({"guitar", "medit", "swim"})
+    private String query;
+    
+    private ConfigurableApplicationContext context;
+    private HabitService habitService;
+    private HabitRepository habitRepository;
+    private Long userId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as arguments so they take precedence over application.properties
+        context = new SpringApplicationBuilder(HabitTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:search-benchmark;DB_CLOSE_ON_EXIT=FALSE",
+                        "--logging.level.root=WARN");
+        
+        habitService = context.getBean(HabitService.class);
+        habitRepository = context.getBean(HabitRepository.class);
+        seed();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<HabitResponse> likeScan() {
+        return habitRepository.findActiveHabitResponsesByUserIdAndNameContaining(userId, query);
+    }
+    
+    @Benchmark
+    public List<HabitResponse> trigramIndex() {
+        return habitService.searchHabits(query, userId);
+    }
+    
+    // Two- and three-word names from a fixed vocabulary, a third of them archived
+    private void seed() {
+        User user = context.getBean(UserRepository.class).save(new User("search-benchmark", "search-benchmark@example.com", "benchmark-password"));
+        userId = user.getId();
+        
+        Random random = new Random(42);
+        List<Habit> habits = new ArrayList<>();
+        for (int h = 0; h < habitCount; h++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + h;
+            Habit habit = new Habit(name, "Daily " + WORDS[random.nextInt(WORDS.length)] + " routine", user);
+            habit.setIsActive(h % 3 != 0);
+            habits.add(habit);
+        }
+        habitRepository.saveAll(habits);
+    }
+}
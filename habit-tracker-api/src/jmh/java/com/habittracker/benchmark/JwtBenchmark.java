@@ -0,0 +1,51 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.security.JwtUtil;
+import com.habittracker.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+    
+    private JwtUtil jwtUtil;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "mySecretKey123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationInMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtil, "refreshTokenExpirationInMs", 604800000);
+        ReflectionTestUtils.setField(jwtUtil, "cacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 1000L);
+        jwtUtil.init();
+        token = jwtUtil.generateTokenFromUserId(42L);
+    }
+    
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+    
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+    
+    // What JwtAuthenticationFilter does on every authenticated request
+    @Benchmark
+    public VerifiedToken filterPath() {
+        return jwtUtil.verifyToken(token);
+    }
+}
@@ -0,0 +1,49 @@
+package com.habittracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Latencies of one operation in a load test run, reported as throughput and percentiles
+class LatencySeries {
+    private final List<Long> latencies = new ArrayList<>();
+    private long rejected;
+    private long errors;
+    
+    // Rejected requests (4xx) are part of a realistic mix and count toward throughput, errors (5xx, I/O) are failures
+    synchronized void record(long nanos, int status) {
+        latencies.add(nanos);
+        if (status >= 500 || status < 0) {
+            errors++;
+        } else if (status >= 400) {
+            rejected++;
+        }
+    }
+    
+    synchronized ObjectNode toJson(ObjectMapper objectMapper, Duration duration) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        
+        ObjectNode row = objectMapper.createObjectNode();
+        row.put("requests", sorted.length);
+        row.put("rejected", rejected);
+        row.put("errors", errors);
+        row.put("throughputPerSecond", sorted.length / (double) duration.toSeconds());
+        row.put("p50Ms", percentile(sorted, 0.50));
+        row.put("p95Ms", percentile(sorted, 0.95));
+        row.put("p99Ms", percentile(sorted, 0.99));
+        row.put("p999Ms", percentile(sorted, 0.999));
+        row.put("maxMs", sorted.length > 0 ? sorted[sorted.length - 1] / 1_000_000.0 : 0);
+        return row;
+    }
+    
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,259 @@
+package com.habittracker.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.habittracker.HabitTrackerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// In-JVM load test against a realistic dataset: boots the API on a random port, seeds it with DatasetGenerator
+// and replays a weighted mix of logins, check-ins, habit and entry listings and analytics reads from many users.
+// Reports throughput and p50/p99/p999 per endpoint.
+// Run with: mvn -Pbenchmark test-compile exec:exec@mixed-load
+public class MixedWorkloadLoadTest {
+    
+    private static final String DEFAULT_MIX = "login=5,check-in=30,list-habits=30,list-entries=15,analytics=20";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Map<String, Integer> mix;
+    
+    private String baseUrl;
+    private List<String> usernames;
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private final Map<String, long[]> habitIds = new HashMap<>();
+    
+    public MixedWorkloadLoadTest(int concurrency, Duration warmup, Duration duration, Map<String, Integer> mix) {
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.mix = mix;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 30));
+        Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+        File output = new File(System.getProperty("loadtest.output", "target/mixed-load-result.json"));
+        
+        ArrayNode results = new MixedWorkloadLoadTest(concurrency, warmup, duration, mix).run();
+        
+        output.getParentFile().mkdirs();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, results);
+        System.out.println("Results written to " + output.getPath());
+    }
+    
+    private ArrayNode run() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HabitTrackerApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:mixed-load;DB_CLOSE_ON_EXIT=FALSE",
+                        "--logging.level.root=WARN")) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            
+            DatasetGenerator generator = new DatasetGenerator(context.getBean(JdbcTemplate.class),
+                    context.getBean(PasswordEncoder.class), DatasetGenerator.Profile.fromSystemProperties());
+            DatasetGenerator.Summary dataset = generator.generate("load");
+            System.out.println(dataset);
+            usernames = dataset.getUsernames();
+            loadHabitIds(context.getBean(JdbcTemplate.class));
+            loginAll();
+            
+            // Warm-up pass lets the JIT, the connection pool and the caches settle, its numbers are discarded
+            drive(warmup);
+            Map<String, LatencySeries> result = drive(duration);
+            
+            ArrayNode rows = objectMapper.createArrayNode();
+            for (Map.Entry<String, LatencySeries> operation : result.entrySet()) {
+                ObjectNode row = objectMapper.createObjectNode();
+                row.put("operation", operation.getKey());
+                row.put("concurrency", concurrency);
+                row.setAll(operation.getValue().toJson(objectMapper, duration));
+                rows.add(row);
+                System.out.println(row);
+            }
+            return rows;
+        }
+    }
+    
+    private void loadHabitIds(JdbcTemplate jdbcTemplate) {
+        Map<String, List<Long>> byUser = new HashMap<>();
+        jdbcTemplate.query("SELECT u.username, h.id FROM habits h JOIN users u ON u.id = h.user_id WHERE h.is_active = true",
+                rs -> { byUser.computeIfAbsent(rs.getString(1), username -> new ArrayList<>()).add(rs.getLong(2)); });
+        byUser.forEach((username, ids) -> habitIds.put(username, ids.stream().mapToLong(Long::longValue).toArray()));
+    }
+    
+    // Every user starts with a session, so the measured logins are the re-logins of the mix and not a cold start
+    private void loginAll() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(concurrency, 16));
+        List<Future<?>> futures = new ArrayList<>();
+        for (String username : usernames) {
+            futures.add(workers.submit(() -> {
+                HttpResponse<String> response = client.send(loginRequest(username), HttpResponse.BodyHandlers.ofString());
+                storeToken(username, response);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+    }
+    
+    private Map<String, LatencySeries> drive(Duration length) throws Exception {
+        Map<String, LatencySeries> result = new LinkedHashMap<>();
+        mix.keySet().forEach(operation -> result.put(label(operation), new LatencySeries()));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long deadline = System.nanoTime() + length.toNanos();
+        
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            futures.add(workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String username = usernames.get(random.nextInt(usernames.size()));
+                    String operation = pick(random.nextInt(totalWeight));
+                    HttpRequest request = request(operation, username, random);
+                    if (request == null) {
+                        // User without active habits, the next iteration picks someone else
+                        continue;
+                    }
+                    
+                    LatencySeries series = result.get(label(operation));
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        series.record(System.nanoTime() - start, response.statusCode());
+                        if ("login".equals(operation) && response.statusCode() == 200) {
+                            storeToken(username, response);
+                        }
+                    } catch (Exception e) {
+                        series.record(System.nanoTime() - start, -1);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+        return result;
+    }
+    
+    private HttpRequest request(String operation, String username, ThreadLocalRandom random) {
+        long[] habits = habitIds.get(username);
+        if (habits == null && ("check-in".equals(operation) || "list-entries".equals(operation))) {
+            return null;
+        }
+        
+        switch (operation) {
+            case "login":
+                return loginRequest(username);
+            case "check-in":
+                long habitId = habits[random.nextInt(habits.length)];
+                // Mostly today, sometimes catching up on the last few days
+                LocalDate date = LocalDate.now().minusDays(random.nextDouble() < 0.8 ? 0 : random.nextInt(1, 4));
+                return authorized(URI.create(baseUrl + "/api/habits/" + habitId + "/entries"), username)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"entryDate\":\"" + date + "\",\"completionCount\":1}"))
+                        .build();
+            case "list-habits":
+                return authorized(URI.create(baseUrl + "/api/habits"), username).GET().build();
+            case "list-entries":
+                return authorized(URI.create(baseUrl + "/api/habits/" + habits[random.nextInt(habits.length)] + "/entries?limit=30"), username)
+                        .GET()
+                        .build();
+            case "analytics":
+                return authorized(URI.create(baseUrl + "/api/analytics"), username).GET().build();
+            default:
+                throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + operation);
+        }
+    }
+    
+    private HttpRequest loginRequest(String username) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"usernameOrEmail\":\"" + username + "\",\"password\":\""
+                        + DatasetGenerator.PASSWORD + "\"}"))
+                .build();
+    }
+    
+    private HttpRequest.Builder authorized(URI uri, String username) {
+        return HttpRequest.newBuilder(uri).header("Authorization", tokens.get(username));
+    }
+    
+    private void storeToken(String username, HttpResponse<String> response) throws Exception {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + username + " with " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        tokens.put(username, "Bearer " + body.get("data").get("token").asText());
+    }
+    
+    private String pick(int ticket) {
+        for (Map.Entry<String, Integer> operation : mix.entrySet()) {
+            ticket -= operation.getValue();
+            if (ticket < 0) {
+                return operation.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights changed during the run");
+    }
+    
+    private static String label(String operation) {
+        switch (operation) {
+            case "login":
+                return "POST /api/auth/login";
+            case "check-in":
+                return "POST /api/habits/{id}/entries";
+            case "list-habits":
+                return "GET /api/habits";
+            case "list-entries":
+                return "GET /api/habits/{id}/entries";
+            case "analytics":
+                return "GET /api/analytics";
+            default:
+                throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + operation);
+        }
+    }
+    
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            label(weight[0]);
+            weights.put(weight[0], Integer.parseInt(weight[1]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,169 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.HabitTrackerApplication;
+import com.habittracker.dto.HabitEntryResponse;
+import com.habittracker.dto.HabitResponse;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.entity.User;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.HabitEntryService;
+import com.habittracker.service.HabitService;
+import com.habittracker.service.OwnershipResolver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity hydration plus field copying (the previous read path) against the constructor projections.
+// Run with the gc profiler (on by default in the benchmark profile) to compare gc.alloc.rate.norm per call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadProjectionBenchmark {
+    
+    @Param({"1000"})
+    private int habitCount;
+    
+    @Param({"100"})
+    private int entriesPerHabit;
+    
+    private ConfigurableApplicationContext context;
+    private HabitService habitService;
+    private HabitEntryService habitEntryService;
+    private HabitRepository habitRepository;
+    private HabitEntryRepository habitEntryRepository;
+    private OwnershipResolver ownershipResolver;
+    private TransactionTemplate transactionTemplate;
+    private MethodHandle habitMapper;
+    private MethodHandle habitEntryMapper;
+    private Long userId;
+    private Long habitId;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Passed as arguments so they take precedence over application.properties. Both habit lists are in the
+        // query cache, which would leave only cache hits to compare.
+        context = new SpringApplicationBuilder(HabitTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:projection-benchmark;DB_CLOSE_ON_EXIT=FALSE",
+                        "--app.entity-cache.enabled=false",
+                        "--logging.level.root=WARN");
+        
+        habitService = context.getBean(HabitService.class);
+        habitEntryService = context.getBean(HabitEntryService.class);
+        habitRepository = context.getBean(HabitRepository.class);
+        habitEntryRepository = context.getBean(HabitEntryRepository.class);
+        ownershipResolver = context.getBean(OwnershipResolver.class);
+        // Read-write on purpose: the old path had every loaded entity dirty-checked at flush
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        habitMapper = unreflect(HabitService.class, Habit.class);
+        habitEntryMapper = unreflect(HabitEntryService.class, HabitEntry.class);
+        seed();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<HabitResponse> habitsAsEntities() {
+        return transactionTemplate.execute(status -> {
+            List<HabitResponse> responses = new ArrayList<>();
+            for (Habit habit : habitRepository.findActiveHabitsByUserId(userId)) {
+                responses.add(mapHabit(habit));
+            }
+            return responses;
+        });
+    }
+    
+    @Benchmark
+    public List<HabitResponse> habitsAsProjections() {
+        return habitService.getUserHabits(userId);
+    }
+    
+    @Benchmark
+    public List<HabitEntryResponse> entriesAsEntities() {
+        return transactionTemplate.execute(status -> {
+            Habit habit = ownershipResolver.requireHabit(habitId, userId);
+            List<HabitEntryResponse> responses = new ArrayList<>();
+            for (HabitEntry entry : habitEntryRepository.findByHabitOrderByEntryDateDesc(habit)) {
+                responses.add(mapHabitEntry(entry));
+            }
+            return responses;
+        });
+    }
+    
+    @Benchmark
+    public List<HabitEntryResponse> entriesAsProjections() {
+        return habitEntryService.getHabitEntries(habitId, userId);
+    }
+    
+    private HabitResponse mapHabit(Habit habit) {
+        try {
+            return (HabitResponse) habitMapper.invoke(habitService, habit);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private HabitEntryResponse mapHabitEntry(HabitEntry entry) {
+        try {
+            return (HabitEntryResponse) habitEntryMapper.invoke(habitEntryService, entry);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        User user = userRepository.save(new User("benchmark", "benchmark@example.com", "benchmark-password"));
+        userId = user.getId();
+        
+        List<Habit> habits = new ArrayList<>();
+        for (int h = 0; h < habitCount; h++) {
+            habits.add(new Habit("Habit " + h, "Benchmark habit " + h, user));
+        }
+        habits = habitRepository.saveAll(habits);
+        habitId = habits.get(0).getId();
+        
+        // 100k rows through JPA would dominate the setup, insert them as JDBC batches instead
+        LocalDate today = LocalDate.now();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (Habit habit : habits) {
+            for (int d = 0; d < entriesPerHabit; d++) {
+                rows.add(new Object[] {habit.getId(), userId, Date.valueOf(today.minusDays(d)), 1, d % 3 != 0, null, now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO habit_entries (habit_id, user_id, entry_date, completion_count, is_completed, notes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+    
+    private static MethodHandle unreflect(Class<?> service, Class<?> argument) throws Exception {
+        Method method = service.getDeclaredMethod("mapToResponse", argument);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+}
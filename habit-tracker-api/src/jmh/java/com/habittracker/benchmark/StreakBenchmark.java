@@ -0,0 +1,94 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.entity.HabitCompletionWord;
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.service.CompletionCalendar;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreakBenchmark {
+    
+    @Param({"10", "100", "1000", "10000"})
+    private int entryCount;
+    
+    private LocalDate today;
+    private long fromWordIndex;
+    private long toWordIndex;
+    private List<HabitCompletionWord> words;
+    private CompletionCalendar calendar;
+    private List<HabitEntry> entriesNewestFirst;
+    
+    @Setup
+    public void setUp() {
+        today = LocalDate.now();
+        Random random = new Random(42);
+        
+        // Daily history ending today with roughly one missed day in ten, oldest gaps first so the current run is long
+        Map<Long, Long> bits = new HashMap<>();
+        entriesNewestFirst = new ArrayList<>();
+        for (int i = 0; i < entryCount; i++) {
+            LocalDate date = today.minusDays(i);
+            boolean completed = i < entryCount / 2 || random.nextInt(10) != 0;
+            
+            HabitEntry entry = new HabitEntry(date, 1, null);
+            entry.setIsCompleted(completed);
+            entriesNewestFirst.add(entry);
+            
+            if (completed) {
+                bits.merge(CompletionCalendar.wordIndexOf(date), 1L << CompletionCalendar.bitIndexOf(date), (a, b) -> a | b);
+            }
+        }
+        
+        words = new ArrayList<>();
+        for (Map.Entry<Long, Long> word : bits.entrySet()) {
+            words.add(new HabitCompletionWord(1L, word.getKey(), word.getValue()));
+        }
+        
+        fromWordIndex = CompletionCalendar.wordIndexOf(today.minusDays(entryCount));
+        toWordIndex = CompletionCalendar.wordIndexOf(today);
+        calendar = CompletionCalendar.of(fromWordIndex, toWordIndex, words);
+    }
+    
+    @Benchmark
+    public int currentRunFromCalendar() {
+        return calendar.runLengthEndingAt(today);
+    }
+    
+    @Benchmark
+    public int currentRunIncludingCalendarLoad() {
+        return CompletionCalendar.of(fromWordIndex, toWordIndex, words).runLengthEndingAt(today);
+    }
+    
+    @Benchmark
+    public int completedInLast30Days() {
+        return calendar.countCompleted(today.minusDays(29), today);
+    }
+    
+    // Baseline: walk every entry of the habit newest first, as the pre-calendar streak calculation did
+    @Benchmark
+    public int currentRunFromEntityScan() {
+        int streak = 0;
+        LocalDate expected = today;
+        for (HabitEntry entry : entriesNewestFirst) {
+            if (!entry.getEntryDate().equals(expected) || !entry.getIsCompleted()) {
+                break;
+            }
+            streak++;
+            expected = expected.minusDays(1);
+        }
+        return streak;
+    }
+}
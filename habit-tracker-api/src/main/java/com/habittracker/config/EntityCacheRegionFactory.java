@@ -0,0 +1,150 @@
+package com.habittracker.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hibernate second-level cache (the @Cacheable entities and cacheable queries) in bounded Caffeine caches,
+// one per region. Handed to Hibernate as an instance, so every application context gets its own regions
+// and each region reports cache_* metrics like the analytics and principal caches.
+@Component
+public class EntityCacheRegionFactory extends RegionFactoryTemplate implements HibernatePropertiesCustomizer, MeterBinder {
+    
+    @Value("${app.entity-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.entity-cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${app.entity-cache.ttl:30m}")
+    private Duration ttl;
+    
+    private final Map<String, Cache<Object, Object>> regions = new ConcurrentHashMap<>();
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+        hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+        if (enabled) {
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, this);
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        regions.forEach((name, region) -> CaffeineCacheMetrics.monitor(registry, region, "hibernate." + name));
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        regions.forEach((name, region) -> statistics.put(name, describe(region)));
+        return statistics;
+    }
+    
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+    
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(Cache::invalidateAll);
+    }
+    
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(region(regionConfig.getRegionName(), true));
+    }
+    
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(region(regionName, true));
+    }
+    
+    // Never bounded: Hibernate treats a table without a timestamp entry as unchanged, so evicting one
+    // would let cached query results outlive a write. There is one entry per table.
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(region(regionName, false));
+    }
+    
+    private Cache<Object, Object> region(String name, boolean bounded) {
+        return regions.computeIfAbsent(name, key -> {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+            if (bounded) {
+                builder.maximumSize(maxSize).expireAfterWrite(ttl);
+            }
+            return builder.build();
+        });
+    }
+    
+    private Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.estimatedSize());
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("evictions", stats.evictionCount());
+        description.put("hitRate", stats.hitRate());
+        return description;
+    }
+    
+    private static class CaffeineStorageAccess implements DomainDataStorageAccess {
+        private final Cache<Object, Object> cache;
+        
+        CaffeineStorageAccess(Cache<Object, Object> cache) {
+            this.cache = cache;
+        }
+        
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+        
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+        }
+        
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+        
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+        
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+        
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
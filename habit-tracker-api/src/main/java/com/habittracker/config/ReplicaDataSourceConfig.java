@@ -0,0 +1,66 @@
+package com.habittracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Two Hikari pools instead of the single auto-configured one: "primary" from spring.datasource.* and "replica"
+// from app.datasource.replica.*, each reported under its own pool tag in the hikaricp_* metrics.
+// The application DataSource routes between them, see ReplicaRoutingDataSource and ReplicaReadAspect.
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+    
+    @Value("${app.datasource.replica.migrate:false}")
+    private boolean migrateReplica;
+    
+    @Value("${app.datasource.replica.jdbc-url}")
+    private String replicaUrl;
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+    
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(ReplicaRoutingDataSource.REPLICA);
+        return dataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MeterRegistry meterRegistry) {
+        if (migrateReplica) {
+            // Only for a local stand-in; a real replica gets its schema from the primary through replication
+            Flyway.configure()
+                    .dataSource(replica)
+                    .locations("classpath:db/migration/" + DatabaseDriver.fromJdbcUrl(replicaUrl).getId())
+                    .load()
+                    .migrate();
+        }
+        
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,102 @@
+package com.habittracker.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.event.HabitDataChangedEvent;
+import com.habittracker.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+// Routes the @Transactional(readOnly = true) methods of @Service beans to the replica. Repository calls made
+// outside such a method (e.g. loading the request principal) stay on the primary. A user who changed habit data
+// within the read-your-writes window reads from the primary, so replication lag never hides their own write.
+// The choice holds for the rest of the request, so an ETag version and the body it tags come from the same database.
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaReadAspect {
+    
+    private static final String ROUTE_ATTRIBUTE = ReplicaReadAspect.class.getName() + ".route";
+    
+    @Value("${app.datasource.replica.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+    
+    @Value("${app.datasource.replica.recent-writers.max-size:100000}")
+    private long maxRecentWriters;
+    
+    private Cache<Long, Boolean> recentWriters;
+    
+    @PostConstruct
+    public void init() {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxRecentWriters)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+    }
+    
+    @Around("@within(org.springframework.stereotype.Service) && @annotation(transactional)")
+    public Object route(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+        
+        ReplicaReads.Route route = routeForRequest(currentUserId());
+        ReplicaReads.Route previous = ReplicaReads.enter(route);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaReads.restore(previous);
+        }
+    }
+    
+    // The window starts at commit, when the write becomes visible on the primary
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHabitDataChanged(HabitDataChangedEvent event) {
+        recentWriters.put(event.getUserId(), Boolean.TRUE);
+    }
+    
+    public boolean isWithinReadYourWritesWindow(Long userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+    
+    // A request only ever moves from the replica to the primary, after a write of its own: data read later
+    // is then at least as new as the version that tags it
+    private ReplicaReads.Route routeForRequest(Long userId) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        String attribute = ROUTE_ATTRIBUTE + "." + userId;
+        Object decided = request != null ? request.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST) : null;
+        if (decided == ReplicaReads.Route.PRIMARY_AFTER_WRITE) {
+            return ReplicaReads.Route.PRIMARY_AFTER_WRITE;
+        }
+        
+        ReplicaReads.Route route = userId != null && isWithinReadYourWritesWindow(userId)
+                ? ReplicaReads.Route.PRIMARY_AFTER_WRITE
+                : ReplicaReads.Route.REPLICA;
+        if (request != null) {
+            request.setAttribute(attribute, route, RequestAttributes.SCOPE_REQUEST);
+        }
+        return route;
+    }
+    
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.habittracker.config;
+
+import java.util.function.Supplier;
+
+// Routing decision for the read-only service call in progress on this thread, made by ReplicaReadAspect and
+// consulted by ReplicaRoutingDataSource when the transaction first needs a connection.
+// Code that runs part of such a call on another thread carries the decision over with propagate.
+public final class ReplicaReads {
+    
+    public enum Route {
+        REPLICA,
+        PRIMARY_AFTER_WRITE
+    }
+    
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+    
+    private ReplicaReads() {
+    }
+    
+    public static Route current() {
+        return CURRENT.get();
+    }
+    
+    // What such a call reads may lag the primary, so it must not fill caches that only primary commits invalidate
+    public static boolean isReplicaRead() {
+        return CURRENT.get() == Route.REPLICA;
+    }
+    
+    // Runs the task outside any routing decision: a transaction it opens reads from the primary
+    public static <T> T onPrimary(Supplier<T> task) {
+        Route previous = enter(null);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    // Returns the previous route, which the caller hands back to restore once the call is done
+    static Route enter(Route route) {
+        Route previous = CURRENT.get();
+        CURRENT.set(route);
+        return previous;
+    }
+    
+    static void restore(Route previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+    
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        Route route = CURRENT.get();
+        if (route == null) {
+            return task;
+        }
+        return () -> {
+            Route previous = enter(route);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.habittracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Picks the pool for each new connection: the replica for a read-only transaction opened by a service method
+// ReplicaReadAspect routed there, the primary for everything else. It sits behind a LazyConnectionDataSourceProxy,
+// so the lookup happens at the first statement, once the transaction manager has marked the transaction read-only.
+// Rows read from the replica may be older than the primary's, so they are kept out of the second-level and query caches.
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+    
+    private final Counter replicaReads;
+    private final Counter primaryReadsAfterWrite;
+    private final Counter primaryConnections;
+    
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        replicaReads = routingCounter(meterRegistry, REPLICA, "read-only");
+        primaryReadsAfterWrite = routingCounter(meterRegistry, PRIMARY, "read-your-writes");
+        primaryConnections = routingCounter(meterRegistry, PRIMARY, "default");
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ReplicaReads.Route route = ReplicaReads.current();
+        // A write transaction nested in a replica read (REQUIRES_NEW) still goes to the primary
+        if (route == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+        if (route == ReplicaReads.Route.PRIMARY_AFTER_WRITE) {
+            primaryReadsAfterWrite.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        readWithoutCaching();
+        return REPLICA;
+    }
+    
+    // The transaction's session bypasses the second-level and query caches. GET would still serve cached rows, but
+    // Hibernate 6.3 stores a cacheable query's results on a miss even in GET mode.
+    private static void readWithoutCaching() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            }
+        }
+    }
+    
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("app.datasource.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.habittracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.dto.ApiResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Bulkhead in front of the blocking JDBC work. With virtual threads nothing bounds the number of
+// requests in flight, so they are admitted only as fast as the connection pool can serve them.
+// Waiting happens on a Semaphore, which parks a virtual thread without pinning its carrier.
+// A request holds at most one connection at a time; the connections that parallel analytics sections and
+// streaming exports take outside the request are left out of the default limit.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.concurrency.limit.enabled", havingValue = "true")
+public class RequestConcurrencyLimiter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(RequestConcurrencyLimiter.class);
+    
+    // Health checks and scrapes must answer while the API is saturated; sign-in does one short lookup and
+    // live streams none, so they would only queue behind slow data requests
+    private static final List<String> UNLIMITED_PATHS = List.of("/actuator/", "/api/health", "/api/auth/", "/api/live");
+    
+    // 0 derives the limit from the pool size
+    @Value("${app.concurrency.max-in-flight:0}")
+    private int maxInFlight;
+    
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+    
+    @Value("${app.analytics.parallel.enabled:false}")
+    private boolean parallelAnalytics;
+    
+    @Value("${app.analytics.parallel.max-connections:4}")
+    private int analyticsConnections;
+    
+    @Value("${app.export.max-concurrent:2}")
+    private int exportConnections;
+    
+    @Value("${app.concurrency.acquire-timeout:5s}")
+    private Duration acquireTimeout;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private Semaphore permits;
+    
+    @PostConstruct
+    public void init() {
+        if (maxInFlight <= 0) {
+            maxInFlight = Math.max(1, poolSize - (parallelAnalytics ? analyticsConnections : 0) - exportConnections);
+        }
+        permits = new Semaphore(maxInFlight, true);
+        
+        if (virtualThreadsRequested && Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; requests run on platform threads",
+                    Runtime.version().feature());
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return UNLIMITED_PATHS.stream().anyMatch(path::startsWith);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Server is busy, please retry"));
+            return;
+        }
+        
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.habittracker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Per-endpoint SQL cost: statements prepared (app.request.sql.statements) and time spent in repository calls
+// (app.request.sql.time) for each request. Runs outside the security chain so principal lookups are included.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestSqlMetricsFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private SqlStatementMetrics sqlStatementMetrics;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        sqlStatementMetrics.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementMetrics.RequestSqlStats stats = sqlStatementMetrics.finishRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            
+            DistributionSummary.builder("app.request.sql.statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.getStatements());
+            Timer.builder("app.request.sql.time")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.getRepositoryNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
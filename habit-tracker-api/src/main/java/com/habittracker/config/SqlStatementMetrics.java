@@ -0,0 +1,168 @@
+package com.habittracker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.SessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Attributes every SQL statement Hibernate prepares to the repository method that caused it (app.sql.statements),
+// or to "flush" when it writes pending entity changes: those are prepared by whichever query triggers the auto-flush,
+// or at commit, and have nothing to do with that query. Also accumulates statement count and repository time for the request in progress (see RequestSqlMetricsFilter).
+// Statements issued through JdbcTemplate (bulk import, export) do not pass through Hibernate and are not counted.
+@Aspect
+@Component
+public class SqlStatementMetrics implements StatementInspector, HibernatePropertiesCustomizer {
+    
+    private static final String OUTSIDE_REPOSITORY = "none";
+    
+    private static final String FLUSH = "flush";
+    
+    // Set by FlushTracker, which Hibernate instantiates itself for every session
+    private static final ThreadLocal<Boolean> FLUSHING = new ThreadLocal<>();
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ThreadLocal<String> currentRepositoryMethod = new ThreadLocal<>();
+    
+    private final ThreadLocal<RequestSqlStats> currentRequest = new ThreadLocal<>();
+    
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, FlushTracker.class.getName());
+    }
+    
+    // Also matches the inherited JpaRepository methods, e.g. save, so their inserts and updates are attributed too
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object trackRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = currentRepositoryMethod.get();
+        if (previous != null) {
+            // Already inside a repository call, statements stay attributed to the outer one
+            return joinPoint.proceed();
+        }
+        
+        currentRepositoryMethod.set(repositoryNames.computeIfAbsent(joinPoint.getTarget().getClass(), SqlStatementMetrics::repositoryName)
+                + "." + joinPoint.getSignature().getName());
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            currentRepositoryMethod.remove();
+            RequestSqlStats request = currentRequest.get();
+            if (request != null) {
+                request.repositoryNanos += System.nanoTime() - start;
+            }
+        }
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        String repositoryMethod = currentRepositoryMethod.get();
+        String source = FLUSHING.get() != null ? FLUSH : repositoryMethod != null ? repositoryMethod : OUTSIDE_REPOSITORY;
+        String type = statementType(sql);
+        counters.computeIfAbsent(source + "|" + type,
+                key -> Counter.builder("app.sql.statements")
+                        .tag("repository", source)
+                        .tag("type", type)
+                        .register(meterRegistry))
+                .increment();
+        
+        RequestSqlStats request = currentRequest.get();
+        if (request != null) {
+            request.statements++;
+        }
+        return sql;
+    }
+    
+    public void startRequest() {
+        currentRequest.set(new RequestSqlStats());
+    }
+    
+    public RequestSqlStats finishRequest() {
+        RequestSqlStats stats = currentRequest.get();
+        currentRequest.remove();
+        return stats;
+    }
+    
+    // The target is a generated proxy, its name comes from the application repository interface it implements
+    private static String repositoryName(Class<?> repositoryClass) {
+        for (Class<?> repositoryInterface : repositoryClass.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(repositoryInterface) && repositoryInterface.getName().startsWith("com.habittracker.")) {
+                return repositoryInterface.getSimpleName();
+            }
+        }
+        return repositoryClass.getSimpleName();
+    }
+    
+    private static String statementType(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+    
+    // Marks the thread while a session flushes, whether explicitly, before a query (partial) or at commit
+    public static class FlushTracker implements SessionEventListener {
+        
+        @Override
+        public void flushStart() {
+            FLUSHING.set(Boolean.TRUE);
+        }
+        
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            FLUSHING.remove();
+        }
+        
+        @Override
+        public void partialFlushStart() {
+            FLUSHING.set(Boolean.TRUE);
+        }
+        
+        @Override
+        public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+            FLUSHING.remove();
+        }
+    }
+    
+    public static class RequestSqlStats {
+        private int statements;
+        private long repositoryNanos;
+        
+        public int getStatements() {
+            return statements;
+        }
+        
+        public long getRepositoryNanos() {
+            return repositoryNanos;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.habittracker.config;
+
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.CompletionCalendarService;
+import com.habittracker.service.StatsRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "app.stats.rebuild-on-startup", havingValue = "true")
+public class StatsRollupBackfillRunner implements CommandLineRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StatsRollupBackfillRunner.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private StatsRollupService statsRollupService;
+    
+    @Autowired
+    private CompletionCalendarService completionCalendarService;
+    
+    @Override
+    public void run(String... args) {
+        List<Long> userIds = userRepository.findAllIds();
+        logger.info("Rebuilding analytics rollups and completion calendars for {} users", userIds.size());
+        
+        // One transaction per user keeps the backfill restartable
+        for (Long userId : userIds) {
+            statsRollupService.rebuildUser(userId);
+            completionCalendarService.rebuildUser(userId);
+        }
+        
+        logger.info("Analytics rollup rebuild completed");
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -16,9 +17,17 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
     
+    @Autowired
+    private ConditionalGet conditionalGet;
+    
     @GetMapping
     public ResponseEntity<ApiResponse<AnalyticsResponse>> getUserAnalytics(
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        
+        if (conditionalGet.isAnalyticsNotModified(webRequest, userPrincipal.getId())) {
+            return null;
+        }
         
         AnalyticsResponse analytics = analyticsService.getUserAnalytics(userPrincipal.getId());
         return ResponseEntity.ok(ApiResponse.success("Analytics retrieved successfully", analytics));
@@ -27,7 +36,12 @@ public class AnalyticsController {
     @GetMapping("/habits/{habitId}")
     public ResponseEntity<ApiResponse<AnalyticsResponse>> getHabitAnalytics(
             @PathVariable Long habitId,
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        
+        if (conditionalGet.isAnalyticsNotModified(webRequest, userPrincipal.getId())) {
+            return null;
+        }
         
         AnalyticsResponse analytics = analyticsService.getHabitAnalytics(habitId, userPrincipal.getId());
         return ResponseEntity.ok(ApiResponse.success("Habit analytics retrieved successfully", analytics));
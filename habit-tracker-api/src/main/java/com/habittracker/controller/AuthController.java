@@ -3,6 +3,7 @@ package com.habittracker.controller;
 import com.habittracker.dto.*;
 import com.habittracker.entity.User;
 import com.habittracker.security.JwtUtil;
+import com.habittracker.security.VerifiedToken;
 import com.habittracker.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -65,13 +66,14 @@ public class AuthController {
     public ResponseEntity<ApiResponse<JwtResponse>> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
         String refreshToken = refreshTokenRequest.getRefreshToken();
         
-        if (!jwtUtil.validateToken(refreshToken) || !jwtUtil.isRefreshToken(refreshToken)) {
+        VerifiedToken token = jwtUtil.verifyToken(refreshToken);
+        if (token == null || !token.isRefresh()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Invalid refresh token", null));
         }
         
         try {
-            Long userId = jwtUtil.getUserIdFromToken(refreshToken);
+            Long userId = token.getUserId();
             User user = userService.findById(userId);
             
             String newAccessToken = jwtUtil.generateTokenFromUserId(userId);
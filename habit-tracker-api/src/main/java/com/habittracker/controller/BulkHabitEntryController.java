@@ -0,0 +1,29 @@
+package com.habittracker.controller;
+
+import com.habittracker.dto.ApiResponse;
+import com.habittracker.dto.BulkHabitEntryRequest;
+import com.habittracker.dto.BulkHabitEntryResponse;
+import com.habittracker.security.UserPrincipal;
+import com.habittracker.service.BulkHabitEntryService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/entries")
+public class BulkHabitEntryController {
+    
+    @Autowired
+    private BulkHabitEntryService bulkHabitEntryService;
+    
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkHabitEntryResponse>> importEntries(
+            @Valid @RequestBody BulkHabitEntryRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        
+        BulkHabitEntryResponse result = bulkHabitEntryService.importEntries(request, userPrincipal.getId());
+        return ResponseEntity.ok(ApiResponse.success("Habit entries imported successfully", result));
+    }
+}
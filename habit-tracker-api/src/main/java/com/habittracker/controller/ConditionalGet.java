@@ -0,0 +1,36 @@
+package com.habittracker.controller;
+
+import com.habittracker.service.ResourceVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+// Answers If-None-Match from the user's change counter before any service method runs.
+// When a check returns true the 304 is already prepared and the handler returns null.
+@Component
+public class ConditionalGet {
+    
+    // Stored by the client but always revalidated, the security default of no-store would rule out If-None-Match
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+    
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    
+    public boolean isNotModified(WebRequest request, Long userId) {
+        return check(request, resourceVersionService.getUserEtag(userId));
+    }
+    
+    public boolean isAnalyticsNotModified(WebRequest request, Long userId) {
+        return check(request, resourceVersionService.getAnalyticsEtag(userId));
+    }
+    
+    private boolean check(WebRequest request, String etag) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(etag);
+    }
+}
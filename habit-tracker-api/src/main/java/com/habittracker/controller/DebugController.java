@@ -1,7 +1,9 @@
 package com.habittracker.controller;
 
+import com.habittracker.config.EntityCacheRegionFactory;
 import com.habittracker.dto.ApiResponse;
 import com.habittracker.repository.UserRepository;
+import com.habittracker.service.AnalyticsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,6 +20,12 @@ public class DebugController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private AnalyticsCache analyticsCache;
+    
+    @Autowired
+    private EntityCacheRegionFactory entityCacheRegionFactory;
+    
     @GetMapping("/db-test")
     public ResponseEntity<ApiResponse<Map<String, Object>>> testDatabase() {
         Map<String, Object> result = new HashMap<>();
@@ -35,4 +43,14 @@ public class DebugController {
         
         return ResponseEntity.ok(ApiResponse.success("Database test completed", result));
     }
+    
+    @GetMapping("/analytics-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> analyticsCacheStatistics() {
+        return ResponseEntity.ok(ApiResponse.success("Analytics cache statistics", analyticsCache.getStatistics()));
+    }
+    
+    @GetMapping("/entity-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> entityCacheStatistics() {
+        return ResponseEntity.ok(ApiResponse.success("Entity cache statistics", entityCacheRegionFactory.getStatistics()));
+    }
 }
@@ -0,0 +1,85 @@
+package com.habittracker.controller;
+
+import com.habittracker.exception.BadRequestException;
+import com.habittracker.exception.ServiceBusyException;
+import com.habittracker.security.UserPrincipal;
+import com.habittracker.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    
+    private static final String EXPORT_SLOT_RELEASE = ExportController.class.getName() + ".exportSlotRelease";
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @GetMapping("/entries")
+    public ResponseEntity<StreamingResponseBody> exportEntries(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        
+        Long userId = userPrincipal.getId();
+        
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"csv".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Unsupported export format: " + format + ". Use ndjson or csv.");
+        }
+        if (!exportService.tryStartExport()) {
+            throw new ServiceBusyException("Too many exports in progress, please retry later");
+        }
+        
+        // Whichever comes first claims the slot: the body, which gives it back once it has streamed or failed, or the
+        // end of the request when the body never ran (executor rejection, async timeout, client gone before it started)
+        AtomicBoolean claimed = new AtomicBoolean();
+        WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(EXPORT_SLOT_RELEASE, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                if (claimed.compareAndSet(false, true)) {
+                    exportService.finishExport();
+                }
+            }
+        });
+        
+        StreamingResponseBody body = out -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (ndjson) {
+                    exportService.exportEntriesAsNdjson(userId, out);
+                } else {
+                    exportService.exportEntriesAsCsv(userId, out);
+                }
+            } finally {
+                exportService.finishExport();
+            }
+        };
+        
+        if (ndjson) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"habit-entries.ndjson\"")
+                    .body(body);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"habit-entries.csv\"")
+                .body(body);
+    }
+}
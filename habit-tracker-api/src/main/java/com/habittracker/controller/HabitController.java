@@ -1,6 +1,7 @@
 package com.habittracker.controller;
 
 import com.habittracker.dto.ApiResponse;
+import com.habittracker.dto.CursorPage;
 import com.habittracker.dto.HabitRequest;
 import com.habittracker.dto.HabitResponse;
 import com.habittracker.security.UserPrincipal;
@@ -11,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,6 +23,9 @@ public class HabitController {
     @Autowired
     private HabitService habitService;
     
+    @Autowired
+    private ConditionalGet conditionalGet;
+    
     @PostMapping
     public ResponseEntity<ApiResponse<HabitResponse>> createHabit(
             @Valid @RequestBody HabitRequest habitRequest,
@@ -33,7 +38,19 @@ public class HabitController {
     
     @GetMapping
     public ResponseEntity<ApiResponse<List<HabitResponse>>> getUserHabits(
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        
+        if (conditionalGet.isNotModified(webRequest, userPrincipal.getId())) {
+            return null;
+        }
+        
+        if (limit != null || cursor != null) {
+            CursorPage<List<HabitResponse>> page = habitService.getUserHabitsPage(userPrincipal.getId(), limit, cursor);
+            return ResponseEntity.ok(ApiResponse.success("Habits retrieved successfully", page));
+        }
         
         List<HabitResponse> habits = habitService.getUserHabits(userPrincipal.getId());
         return ResponseEntity.ok(ApiResponse.success("Habits retrieved successfully", habits));
@@ -42,7 +59,12 @@ public class HabitController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<HabitResponse>> getHabitById(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        
+        if (conditionalGet.isNotModified(webRequest, userPrincipal.getId())) {
+            return null;
+        }
         
         HabitResponse habit = habitService.getHabitById(id, userPrincipal.getId());
         return ResponseEntity.ok(ApiResponse.success("Habit retrieved successfully", habit));
@@ -70,7 +92,12 @@ public class HabitController {
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<HabitResponse>>> searchHabits(
             @RequestParam String name,
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        
+        if (conditionalGet.isNotModified(webRequest, userPrincipal.getId())) {
+            return null;
+        }
         
         List<HabitResponse> habits = habitService.searchHabits(name, userPrincipal.getId());
         return ResponseEntity.ok(ApiResponse.success("Habits found", habits));
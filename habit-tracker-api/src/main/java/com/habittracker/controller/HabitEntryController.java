@@ -1,6 +1,7 @@
 package com.habittracker.controller;
 
 import com.habittracker.dto.ApiResponse;
+import com.habittracker.dto.CursorPage;
 import com.habittracker.dto.HabitEntryRequest;
 import com.habittracker.dto.HabitEntryResponse;
 import com.habittracker.security.UserPrincipal;
@@ -12,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -23,6 +25,9 @@ public class HabitEntryController {
     @Autowired
     private HabitEntryService habitEntryService;
     
+    @Autowired
+    private ConditionalGet conditionalGet;
+    
     @PostMapping
     public ResponseEntity<ApiResponse<HabitEntryResponse>> createHabitEntry(
             @PathVariable Long habitId,
@@ -39,7 +44,20 @@ public class HabitEntryController {
             @PathVariable Long habitId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        
+        if (conditionalGet.isNotModified(webRequest, userPrincipal.getId())) {
+            return null;
+        }
+        
+        if (limit != null || cursor != null) {
+            CursorPage<List<HabitEntryResponse>> page = habitEntryService.getHabitEntriesPage(
+                    habitId, startDate, endDate, limit, cursor, userPrincipal.getId());
+            return ResponseEntity.ok(ApiResponse.success("Habit entries retrieved successfully", page));
+        }
         
         List<HabitEntryResponse> entries;
         
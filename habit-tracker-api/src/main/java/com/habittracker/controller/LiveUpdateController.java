@@ -0,0 +1,42 @@
+package com.habittracker.controller;
+
+import com.habittracker.dto.ApiResponse;
+import com.habittracker.dto.StreamTicketResponse;
+import com.habittracker.security.StreamTicketStore;
+import com.habittracker.security.UserPrincipal;
+import com.habittracker.service.LiveUpdateBroker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/live")
+public class LiveUpdateController {
+    
+    @Autowired
+    private LiveUpdateBroker liveUpdateBroker;
+    
+    @Autowired
+    private StreamTicketStore streamTicketStore;
+    
+    // For EventSource clients, which pass the ticket as ?ticket= since they cannot set the Authorization header
+    @PostMapping("/ticket")
+    public ResponseEntity<ApiResponse<StreamTicketResponse>> issueTicket(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        StreamTicketResponse ticket = new StreamTicketResponse(streamTicketStore.issue(userPrincipal.getId()),
+                streamTicketStore.getTicketTtl().toSeconds());
+        return ResponseEntity.ok(ApiResponse.success("Stream ticket issued", ticket));
+    }
+    
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        
+        // A new EventSource opened with a fresh ticket cannot send the header, so it may resume via the parameter
+        return liveUpdateBroker.subscribe(userPrincipal.getId(), lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+}
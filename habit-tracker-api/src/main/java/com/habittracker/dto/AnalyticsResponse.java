@@ -1,5 +1,8 @@
 package com.habittracker.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +21,10 @@ public class AnalyticsResponse {
     private Map<LocalDate, Integer> dailyCompletions;
     private Map<String, Integer> habitCompletionCounts;
     
+    // Sections that could not be computed in time; absent when the response is complete
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> unavailableSections;
+    
     // Constructors
     public AnalyticsResponse() {}
     
@@ -110,6 +117,19 @@ public class AnalyticsResponse {
         this.habitCompletionCounts = habitCompletionCounts;
     }
     
+    public List<String> getUnavailableSections() {
+        return unavailableSections;
+    }
+    
+    public void setUnavailableSections(List<String> unavailableSections) {
+        this.unavailableSections = unavailableSections;
+    }
+    
+    @JsonIgnore
+    public boolean isPartial() {
+        return unavailableSections != null && !unavailableSections.isEmpty();
+    }
+    
     // Inner class for habit streak information
     public static class HabitStreakInfo {
         private Long habitId;
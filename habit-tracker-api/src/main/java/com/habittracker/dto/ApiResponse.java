@@ -1,5 +1,7 @@
 package com.habittracker.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 
 public class ApiResponse<T> {
@@ -9,6 +11,10 @@ public class ApiResponse<T> {
     private T data;
     private LocalDateTime timestamp;
     
+    // Only present on paginated responses that have a further page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    
     // Constructors
     public ApiResponse() {
         this.timestamp = LocalDateTime.now();
@@ -32,6 +38,12 @@ public class ApiResponse<T> {
         return new ApiResponse<>(true, message, data);
     }
     
+    public static <T> ApiResponse<T> success(String message, CursorPage<T> page) {
+        ApiResponse<T> response = new ApiResponse<>(true, message, page.getItems());
+        response.setNextCursor(page.getNextCursor());
+        return response;
+    }
+    
     public static <T> ApiResponse<T> success(String message) {
         return new ApiResponse<>(true, message);
     }
@@ -76,4 +88,12 @@ public class ApiResponse<T> {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,21 @@
+package com.habittracker.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class BulkHabitEntryItem extends HabitEntryRequest {
+    
+    @NotNull(message = "Habit id is required")
+    private Long habitId;
+    
+    // Constructors
+    public BulkHabitEntryItem() {}
+    
+    // Getters and Setters
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+}
@@ -0,0 +1,27 @@
+package com.habittracker.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkHabitEntryRequest {
+    
+    @NotEmpty(message = "At least one entry is required")
+    @Size(max = 1000, message = "At most 1000 entries can be sent at once")
+    @Valid
+    private List<BulkHabitEntryItem> entries;
+    
+    // Constructors
+    public BulkHabitEntryRequest() {}
+    
+    // Getters and Setters
+    public List<BulkHabitEntryItem> getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(List<BulkHabitEntryItem> entries) {
+        this.entries = entries;
+    }
+}
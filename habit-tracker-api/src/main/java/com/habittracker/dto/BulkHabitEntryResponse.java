@@ -0,0 +1,42 @@
+package com.habittracker.dto;
+
+public class BulkHabitEntryResponse {
+    
+    private int created;
+    private int updated;
+    private int habitsAffected;
+    
+    // Constructors
+    public BulkHabitEntryResponse() {}
+    
+    public BulkHabitEntryResponse(int created, int updated, int habitsAffected) {
+        this.created = created;
+        this.updated = updated;
+        this.habitsAffected = habitsAffected;
+    }
+    
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+    
+    public int getHabitsAffected() {
+        return habitsAffected;
+    }
+    
+    public void setHabitsAffected(int habitsAffected) {
+        this.habitsAffected = habitsAffected;
+    }
+}
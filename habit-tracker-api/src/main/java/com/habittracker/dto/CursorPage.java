@@ -0,0 +1,32 @@
+package com.habittracker.dto;
+
+public class CursorPage<T> {
+    
+    private T items;
+    private String nextCursor;
+    
+    // Constructors
+    public CursorPage() {}
+    
+    public CursorPage(T items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public T getItems() {
+        return items;
+    }
+    
+    public void setItems(T items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,44 @@
+package com.habittracker.dto;
+
+import java.time.LocalDate;
+
+public class DailyCompletionCount {
+    
+    private LocalDate date;
+    private Long completedCount;
+    private Long completionSum;
+    
+    // Constructors
+    public DailyCompletionCount() {}
+    
+    public DailyCompletionCount(LocalDate date, Long completedCount, Long completionSum) {
+        this.date = date;
+        this.completedCount = completedCount;
+        this.completionSum = completionSum != null ? completionSum : 0L;
+    }
+    
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+    
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+    
+    public Long getCompletionSum() {
+        return completionSum;
+    }
+    
+    public void setCompletionSum(Long completionSum) {
+        this.completionSum = completionSum;
+    }
+}
@@ -0,0 +1,42 @@
+package com.habittracker.dto;
+
+public class HabitCompletionCount {
+    
+    private Long habitId;
+    private Long completedCount;
+    private Long completionSum;
+    
+    // Constructors
+    public HabitCompletionCount() {}
+    
+    public HabitCompletionCount(Long habitId, Long completedCount, Long completionSum) {
+        this.habitId = habitId;
+        this.completedCount = completedCount;
+        this.completionSum = completionSum != null ? completionSum : 0L;
+    }
+    
+    // Getters and Setters
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+    
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+    
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+    
+    public Long getCompletionSum() {
+        return completionSum;
+    }
+    
+    public void setCompletionSum(Long completionSum) {
+        this.completionSum = completionSum;
+    }
+}
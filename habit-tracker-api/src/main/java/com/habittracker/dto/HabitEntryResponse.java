@@ -23,6 +23,15 @@ public class HabitEntryResponse {
         this.isCompleted = isCompleted;
     }
     
+    // Used by the read-only projection queries in HabitEntryRepository
+    public HabitEntryResponse(Long id, LocalDate entryDate, Integer completionCount, Boolean isCompleted, String notes,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, entryDate, completionCount, isCompleted);
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -28,6 +28,17 @@ public class HabitResponse {
         this.targetCount = targetCount;
     }
     
+    // Used by the read-only projection queries in HabitRepository
+    public HabitResponse(Long id, String name, String description, FrequencyType frequencyType, Integer targetCount,
+                         Boolean isActive, Integer streakCount, Integer bestStreak, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, description, frequencyType, targetCount);
+        this.isActive = isActive;
+        this.streakCount = streakCount;
+        this.bestStreak = bestStreak;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,30 @@
+package com.habittracker.dto;
+
+public class StreamTicketResponse {
+    
+    private String ticket;
+    private long expiresInSeconds;
+    
+    public StreamTicketResponse() {}
+    
+    public StreamTicketResponse(String ticket, long expiresInSeconds) {
+        this.ticket = ticket;
+        this.expiresInSeconds = expiresInSeconds;
+    }
+    
+    public String getTicket() {
+        return ticket;
+    }
+    
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+    
+    public long getExpiresInSeconds() {
+        return expiresInSeconds;
+    }
+    
+    public void setExpiresInSeconds(long expiresInSeconds) {
+        this.expiresInSeconds = expiresInSeconds;
+    }
+}
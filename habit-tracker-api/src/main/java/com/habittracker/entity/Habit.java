@@ -3,16 +3,25 @@ package com.habittracker.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "habits")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Updates write only the changed columns, so a check-in saving its streak never writes back an
+// archivedThroughYear it read before the tiering job changed it
+@DynamicUpdate
 @EntityListeners(AuditingEntityListener.class)
 public class Habit {
     
@@ -44,6 +53,16 @@ public class Habit {
     @Column(name = "best_streak")
     private Integer bestStreak = 0;
     
+    @Column(name = "streak_start_date")
+    private LocalDate streakStartDate;
+    
+    @Column(name = "streak_end_date")
+    private LocalDate streakEndDate;
+    
+    // Latest year whose entries live in habit_entry_archives, null while every entry is in habit_entries
+    @Column(name = "archived_through_year")
+    private Integer archivedThroughYear;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -133,6 +152,30 @@ public class Habit {
         this.bestStreak = bestStreak;
     }
     
+    public LocalDate getStreakStartDate() {
+        return streakStartDate;
+    }
+    
+    public void setStreakStartDate(LocalDate streakStartDate) {
+        this.streakStartDate = streakStartDate;
+    }
+    
+    public LocalDate getStreakEndDate() {
+        return streakEndDate;
+    }
+    
+    public void setStreakEndDate(LocalDate streakEndDate) {
+        this.streakEndDate = streakEndDate;
+    }
+    
+    public Integer getArchivedThroughYear() {
+        return archivedThroughYear;
+    }
+    
+    public void setArchivedThroughYear(Integer archivedThroughYear) {
+        this.archivedThroughYear = archivedThroughYear;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
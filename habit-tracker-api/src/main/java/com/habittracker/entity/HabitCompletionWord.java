@@ -0,0 +1,66 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "habit_completion_words", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"habit_id", "word_index"})
+})
+public class HabitCompletionWord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "habit_id", nullable = false)
+    private Long habitId;
+    
+    // Epoch day divided by 64, bit n of the word is day (wordIndex * 64 + n)
+    @Column(name = "word_index", nullable = false)
+    private Long wordIndex;
+    
+    @Column(nullable = false)
+    private Long bits = 0L;
+    
+    // Constructors
+    public HabitCompletionWord() {}
+    
+    public HabitCompletionWord(Long habitId, Long wordIndex, Long bits) {
+        this.habitId = habitId;
+        this.wordIndex = wordIndex;
+        this.bits = bits;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+    
+    public Long getWordIndex() {
+        return wordIndex;
+    }
+    
+    public void setWordIndex(Long wordIndex) {
+        this.wordIndex = wordIndex;
+    }
+    
+    public Long getBits() {
+        return bits;
+    }
+    
+    public void setBits(Long bits) {
+        this.bits = bits;
+    }
+}
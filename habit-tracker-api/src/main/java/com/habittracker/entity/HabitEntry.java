@@ -43,6 +43,10 @@ public class HabitEntry {
     @JoinColumn(name = "habit_id", nullable = false)
     private Habit habit;
     
+    // Owner of the habit, denormalized so per-user queries skip the join to habits
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+    
     // Constructors
     public HabitEntry() {}
     
@@ -121,4 +125,12 @@ public class HabitEntry {
     public void setHabit(Habit habit) {
         this.habit = habit;
     }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
 }
@@ -0,0 +1,145 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+
+// One habit's entries for one calendar year, compacted by EntryArchiveService. Bit n of the day bitmaps is
+// day-of-year n + 1; the counts and ids of the logged days are varints in day order (see EntryArchiveCodec).
+@Entity
+@Table(name = "habit_entry_archives", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"habit_id", "archive_year"})
+})
+public class HabitEntryArchive {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "habit_id", nullable = false)
+    private Long habitId;
+    
+    @Column(name = "archive_year", nullable = false)
+    private Integer archiveYear;
+    
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+    
+    @Column(name = "completed_count", nullable = false)
+    private Integer completedCount;
+    
+    @Column(name = "completion_sum", nullable = false)
+    private Long completionSum;
+    
+    @Column(name = "logged_days", nullable = false, length = 46)
+    private byte[] loggedDays;
+    
+    @Column(name = "completed_days", nullable = false, length = 46)
+    private byte[] completedDays;
+    
+    @Column(name = "completion_counts", nullable = false, length = 2048)
+    private byte[] completionCounts;
+    
+    @Column(name = "entry_ids", nullable = false, length = 4096)
+    private byte[] entryIds;
+    
+    // Day-of-year to note, only for entries that had one; sized for a note of up to 500 characters on every day
+    @Lob
+    @Column(length = 200000)
+    private String notes;
+    
+    // Constructors
+    public HabitEntryArchive() {}
+    
+    public HabitEntryArchive(Long habitId, Integer archiveYear) {
+        this.habitId = habitId;
+        this.archiveYear = archiveYear;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+    
+    public Integer getArchiveYear() {
+        return archiveYear;
+    }
+    
+    public void setArchiveYear(Integer archiveYear) {
+        this.archiveYear = archiveYear;
+    }
+    
+    public Integer getEntryCount() {
+        return entryCount;
+    }
+    
+    public void setEntryCount(Integer entryCount) {
+        this.entryCount = entryCount;
+    }
+    
+    public Integer getCompletedCount() {
+        return completedCount;
+    }
+    
+    public void setCompletedCount(Integer completedCount) {
+        this.completedCount = completedCount;
+    }
+    
+    public Long getCompletionSum() {
+        return completionSum;
+    }
+    
+    public void setCompletionSum(Long completionSum) {
+        this.completionSum = completionSum;
+    }
+    
+    public byte[] getLoggedDays() {
+        return loggedDays;
+    }
+    
+    public void setLoggedDays(byte[] loggedDays) {
+        this.loggedDays = loggedDays;
+    }
+    
+    public byte[] getCompletedDays() {
+        return completedDays;
+    }
+    
+    public void setCompletedDays(byte[] completedDays) {
+        this.completedDays = completedDays;
+    }
+    
+    public byte[] getCompletionCounts() {
+        return completionCounts;
+    }
+    
+    public void setCompletionCounts(byte[] completionCounts) {
+        this.completionCounts = completionCounts;
+    }
+    
+    public byte[] getEntryIds() {
+        return entryIds;
+    }
+    
+    public void setEntryIds(byte[] entryIds) {
+        this.entryIds = entryIds;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
@@ -0,0 +1,64 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "habit_stats")
+public class HabitStats {
+    
+    @Id
+    @Column(name = "habit_id")
+    private Long habitId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "completed_count", nullable = false)
+    private Long completedCount = 0L;
+    
+    @Column(name = "completion_sum", nullable = false)
+    private Long completionSum = 0L;
+    
+    // Constructors
+    public HabitStats() {}
+    
+    public HabitStats(Long habitId, Long userId, Long completedCount, Long completionSum) {
+        this.habitId = habitId;
+        this.userId = userId;
+        this.completedCount = completedCount;
+        this.completionSum = completionSum;
+    }
+    
+    // Getters and Setters
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+    
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+    
+    public Long getCompletionSum() {
+        return completionSum;
+    }
+    
+    public void setCompletionSum(Long completionSum) {
+        this.completionSum = completionSum;
+    }
+}
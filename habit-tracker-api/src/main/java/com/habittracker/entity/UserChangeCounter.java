@@ -0,0 +1,40 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "user_change_counters")
+public class UserChangeCounter {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+    
+    // Constructors
+    public UserChangeCounter() {}
+    
+    public UserChangeCounter(Long userId, Long version) {
+        this.userId = userId;
+        this.version = version;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
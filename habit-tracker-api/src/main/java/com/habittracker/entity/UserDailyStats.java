@@ -0,0 +1,79 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "user_daily_stats", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_id", "stat_date"})
+})
+public class UserDailyStats {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+    
+    @Column(name = "completed_count", nullable = false)
+    private Long completedCount = 0L;
+    
+    @Column(name = "completion_sum", nullable = false)
+    private Long completionSum = 0L;
+    
+    // Constructors
+    public UserDailyStats() {}
+    
+    public UserDailyStats(Long userId, LocalDate statDate, Long completedCount, Long completionSum) {
+        this.userId = userId;
+        this.statDate = statDate;
+        this.completedCount = completedCount;
+        this.completionSum = completionSum;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+    
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+    
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+    
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+    
+    public Long getCompletionSum() {
+        return completionSum;
+    }
+    
+    public void setCompletionSum(Long completionSum) {
+        this.completionSum = completionSum;
+    }
+}
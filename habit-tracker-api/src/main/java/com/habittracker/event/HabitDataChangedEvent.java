@@ -0,0 +1,20 @@
+package com.habittracker.event;
+
+public class HabitDataChangedEvent {
+    
+    private final Long userId;
+    private final Long habitId;
+    
+    public HabitDataChangedEvent(Long userId, Long habitId) {
+        this.userId = userId;
+        this.habitId = habitId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Long getHabitId() {
+        return habitId;
+    }
+}
@@ -0,0 +1,39 @@
+package com.habittracker.event;
+
+// A habit was created, renamed or re-described, or archived; carries what habit search indexes
+public class HabitDetailsChangedEvent {
+    
+    private final Long userId;
+    private final Long habitId;
+    private final String name;
+    private final String description;
+    private final boolean active;
+    
+    public HabitDetailsChangedEvent(Long userId, Long habitId, String name, String description, boolean active) {
+        this.userId = userId;
+        this.habitId = habitId;
+        this.name = name;
+        this.description = description;
+        this.active = active;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+}
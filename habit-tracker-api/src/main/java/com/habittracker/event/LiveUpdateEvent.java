@@ -0,0 +1,76 @@
+package com.habittracker.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.habittracker.entity.Habit;
+
+import java.time.LocalDate;
+
+// Compact change notification pushed to the user's open live update streams; serialized as the event data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LiveUpdateEvent {
+    
+    public enum Type {
+        HABIT_CREATED,
+        HABIT_UPDATED,
+        HABIT_ARCHIVED,
+        ENTRY_UPSERTED,
+        ENTRY_DELETED,
+        ENTRIES_IMPORTED
+    }
+    
+    private final Long userId;
+    private final Type type;
+    private final Long habitId;
+    private final Long entryId;
+    private final LocalDate entryDate;
+    private final Integer streakCount;
+    private final Integer bestStreak;
+    
+    private LiveUpdateEvent(Long userId, Type type, Habit habit, Long entryId, LocalDate entryDate) {
+        this.userId = userId;
+        this.type = type;
+        this.habitId = habit.getId();
+        this.entryId = entryId;
+        this.entryDate = entryDate;
+        this.streakCount = habit.getStreakCount();
+        this.bestStreak = habit.getBestStreak();
+    }
+    
+    public static LiveUpdateEvent forHabit(Long userId, Type type, Habit habit) {
+        return new LiveUpdateEvent(userId, type, habit, null, null);
+    }
+    
+    public static LiveUpdateEvent forEntry(Long userId, Type type, Habit habit, Long entryId, LocalDate entryDate) {
+        return new LiveUpdateEvent(userId, type, habit, entryId, entryDate);
+    }
+    
+    @JsonIgnore
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public Long getHabitId() {
+        return habitId;
+    }
+    
+    public Long getEntryId() {
+        return entryId;
+    }
+    
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+    
+    public Integer getStreakCount() {
+        return streakCount;
+    }
+    
+    public Integer getBestStreak() {
+        return bestStreak;
+    }
+}
@@ -0,0 +1,20 @@
+package com.habittracker.event;
+
+import com.habittracker.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+// JPA entity listener, instantiated through Spring so every update or delete of a user is seen, whichever service made it
+public class UserChangePublisher {
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.habittracker.event;
+
+public class UserChangedEvent {
+    
+    private final Long userId;
+    
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
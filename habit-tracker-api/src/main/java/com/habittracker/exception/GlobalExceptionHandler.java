@@ -28,6 +28,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<String>> handleServiceBusyException(ServiceBusyException ex) {
+        ApiResponse<String> response = ApiResponse.error(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiResponse<String>> handleBadCredentialsException(BadCredentialsException ex) {
         ApiResponse<String> response = ApiResponse.error("Invalid username or password");
@@ -0,0 +1,8 @@
+package com.habittracker.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
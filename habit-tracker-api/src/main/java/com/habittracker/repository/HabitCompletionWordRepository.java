@@ -0,0 +1,30 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.HabitCompletionWord;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HabitCompletionWordRepository extends JpaRepository<HabitCompletionWord, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<HabitCompletionWord> findByHabitIdAndWordIndex(Long habitId, Long wordIndex);
+    
+    List<HabitCompletionWord> findByHabitIdAndWordIndexBetweenOrderByWordIndex(Long habitId, Long fromIndex, Long toIndex);
+    
+    @Query("SELECT w FROM HabitCompletionWord w WHERE w.habitId = :habitId AND w.wordIndex <= :wordIndex AND w.bits <> 0 ORDER BY w.wordIndex DESC")
+    List<HabitCompletionWord> findNonEmptyWordsDownFrom(@Param("habitId") Long habitId, @Param("wordIndex") Long wordIndex, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM HabitCompletionWord w WHERE w.habitId = :habitId")
+    int deleteByHabitId(@Param("habitId") Long habitId);
+}
@@ -0,0 +1,32 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.HabitEntryArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HabitEntryArchiveRepository extends JpaRepository<HabitEntryArchive, Long> {
+    
+    Optional<HabitEntryArchive> findByHabitIdAndArchiveYear(Long habitId, Integer archiveYear);
+    
+    List<HabitEntryArchive> findByHabitIdOrderByArchiveYear(Long habitId);
+    
+    List<HabitEntryArchive> findByHabitIdAndArchiveYearBetweenOrderByArchiveYear(Long habitId, Integer fromYear, Integer toYear);
+    
+    @Query("SELECT a.archiveYear FROM HabitEntryArchive a WHERE a.habitId = :habitId AND a.archiveYear BETWEEN :fromYear AND :toYear ORDER BY a.archiveYear")
+    List<Integer> findArchiveYears(@Param("habitId") Long habitId, @Param("fromYear") Integer fromYear, @Param("toYear") Integer toYear);
+    
+    @Query("SELECT a FROM HabitEntryArchive a WHERE a.habitId IN (SELECT h.id FROM Habit h WHERE h.user.id = :userId)")
+    List<HabitEntryArchive> findByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT MAX(a.archiveYear) FROM HabitEntryArchive a WHERE a.habitId = :habitId")
+    Integer findLatestArchiveYear(@Param("habitId") Long habitId);
+    
+    @Query("SELECT DISTINCT a.habitId FROM HabitEntryArchive a WHERE a.archiveYear > :year")
+    List<Long> findHabitIdsWithArchivesAfter(@Param("year") Integer year);
+}
@@ -1,13 +1,19 @@
 package com.habittracker.repository;
 
+import com.habittracker.dto.DailyCompletionCount;
+import com.habittracker.dto.HabitCompletionCount;
+import com.habittracker.dto.HabitEntryResponse;
 import com.habittracker.entity.Habit;
 import com.habittracker.entity.HabitEntry;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +22,9 @@ public interface HabitEntryRepository extends JpaRepository<HabitEntry, Long> {
     
     Optional<HabitEntry> findByHabitAndEntryDate(Habit habit, LocalDate entryDate);
     
+    @Query("SELECT he FROM HabitEntry he JOIN FETCH he.habit h WHERE he.id = :entryId AND h.id = :habitId AND h.user.id = :userId")
+    Optional<HabitEntry> findOwnedEntry(@Param("entryId") Long entryId, @Param("habitId") Long habitId, @Param("userId") Long userId);
+    
     List<HabitEntry> findByHabitOrderByEntryDateDesc(Habit habit);
     
     List<HabitEntry> findByHabitAndEntryDateBetween(Habit habit, LocalDate startDate, LocalDate endDate);
@@ -23,15 +32,45 @@ public interface HabitEntryRepository extends JpaRepository<HabitEntry, Long> {
     @Query("SELECT he FROM HabitEntry he WHERE he.habit = :habit AND he.entryDate BETWEEN :startDate AND :endDate ORDER BY he.entryDate DESC")
     List<HabitEntry> findEntriesByHabitAndDateRange(@Param("habit") Habit habit, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
+    // Projections build the response directly, nothing is attached to the persistence context
+    @Query("SELECT new com.habittracker.dto.HabitEntryResponse(he.id, he.entryDate, he.completionCount, he.isCompleted, he.notes, he.createdAt, he.updatedAt) FROM HabitEntry he WHERE he.habit.id = :habitId ORDER BY he.entryDate DESC")
+    List<HabitEntryResponse> findEntryResponsesByHabitId(@Param("habitId") Long habitId);
+    
+    @Query("SELECT new com.habittracker.dto.HabitEntryResponse(he.id, he.entryDate, he.completionCount, he.isCompleted, he.notes, he.createdAt, he.updatedAt) FROM HabitEntry he WHERE he.habit.id = :habitId AND he.entryDate BETWEEN :startDate AND :endDate ORDER BY he.entryDate DESC")
+    List<HabitEntryResponse> findEntryResponsesByHabitIdAndDateRange(@Param("habitId") Long habitId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT new com.habittracker.dto.HabitEntryResponse(he.id, he.entryDate, he.completionCount, he.isCompleted, he.notes, he.createdAt, he.updatedAt) FROM HabitEntry he WHERE he.habit.id = :habitId AND he.entryDate BETWEEN :startDate AND :endDate ORDER BY he.entryDate DESC, he.id DESC")
+    List<HabitEntryResponse> findEntriesPage(@Param("habitId") Long habitId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+    
+    // Seeks past the (entryDate, id) of the previous page's last row instead of skipping rows with OFFSET
+    @Query("SELECT new com.habittracker.dto.HabitEntryResponse(he.id, he.entryDate, he.completionCount, he.isCompleted, he.notes, he.createdAt, he.updatedAt) FROM HabitEntry he WHERE he.habit.id = :habitId AND he.entryDate BETWEEN :startDate AND :endDate AND (he.entryDate < :cursorDate OR (he.entryDate = :cursorDate AND he.id < :cursorId)) ORDER BY he.entryDate DESC, he.id DESC")
+    List<HabitEntryResponse> findEntriesPageAfter(@Param("habitId") Long habitId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId, Pageable pageable);
+    
     @Query("SELECT COUNT(he) FROM HabitEntry he WHERE he.habit = :habit AND he.isCompleted = true")
     Long countCompletedEntriesByHabit(@Param("habit") Habit habit);
     
     @Query("SELECT COUNT(he) FROM HabitEntry he WHERE he.habit = :habit AND he.entryDate BETWEEN :startDate AND :endDate AND he.isCompleted = true")
     Long countCompletedEntriesByHabitAndDateRange(@Param("habit") Habit habit, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT he FROM HabitEntry he WHERE he.habit.user.id = :userId AND he.entryDate = :date")
-    List<HabitEntry> findEntriesByUserAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
+    @Query("SELECT he FROM HabitEntry he WHERE he.habit.id IN :habitIds AND he.entryDate BETWEEN :startDate AND :endDate")
+    List<HabitEntry> findEntriesByHabitIdsAndDateRange(@Param("habitIds") Collection<Long> habitIds, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT new com.habittracker.dto.DailyCompletionCount(he.entryDate, COUNT(he), SUM(he.completionCount)) FROM HabitEntry he WHERE he.habit = :habit AND he.entryDate BETWEEN :startDate AND :endDate AND he.isCompleted = true GROUP BY he.entryDate")
+    List<DailyCompletionCount> countCompletedEntriesByHabitGroupedByDate(@Param("habit") Habit habit, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT new com.habittracker.dto.DailyCompletionCount(he.entryDate, COUNT(he), SUM(he.completionCount)) FROM HabitEntry he WHERE he.userId = :userId AND he.isCompleted = true GROUP BY he.entryDate")
+    List<DailyCompletionCount> countAllCompletedEntriesByUserGroupedByDate(@Param("userId") Long userId);
+    
+    @Query("SELECT new com.habittracker.dto.HabitCompletionCount(he.habit.id, COUNT(he), SUM(he.completionCount)) FROM HabitEntry he WHERE he.userId = :userId AND he.isCompleted = true GROUP BY he.habit.id")
+    List<HabitCompletionCount> countAllCompletedEntriesByUserGroupedByHabit(@Param("userId") Long userId);
+    
+    @Query("SELECT he.entryDate FROM HabitEntry he WHERE he.habit.id = :habitId AND he.isCompleted = true")
+    List<LocalDate> findAllCompletedEntryDates(@Param("habitId") Long habitId);
+    
+    @Query("SELECT DISTINCT he.habit.id FROM HabitEntry he WHERE he.entryDate < :cutoff")
+    List<Long> findHabitIdsWithEntriesBefore(@Param("cutoff") LocalDate cutoff);
     
-    @Query("SELECT he FROM HabitEntry he WHERE he.habit.user.id = :userId AND he.entryDate BETWEEN :startDate AND :endDate")
-    List<HabitEntry> findEntriesByUserAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    @Modifying
+    @Query("DELETE FROM HabitEntry he WHERE he.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,12 +1,21 @@
 package com.habittracker.repository;
 
+import com.habittracker.dto.HabitResponse;
 import com.habittracker.entity.Habit;
 import com.habittracker.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,18 +28,54 @@ public interface HabitRepository extends JpaRepository<Habit, Long> {
     
     Optional<Habit> findByIdAndUser(Long id, User user);
     
-    @Query("SELECT h FROM Habit h WHERE h.user = :user AND h.isActive = true ORDER BY h.createdAt DESC")
-    List<Habit> findActiveHabitsByUser(@Param("user") User user);
-    
-    @Query("SELECT h FROM Habit h WHERE h.user.id = :userId AND h.isActive = true")
+    // Cached in the query cache until the next write to habits, like the habit list below
+    @Query("SELECT h FROM Habit h WHERE h.user.id = :userId AND h.isActive = true ORDER BY h.createdAt DESC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Habit> findActiveHabitsByUserId(@Param("userId") Long userId);
     
+    // Projections build the response directly, nothing is attached to the persistence context.
+    // The habit list is cached in the query cache until the next write to habits.
+    @Query("SELECT new com.habittracker.dto.HabitResponse(h.id, h.name, h.description, h.frequencyType, h.targetCount, h.isActive, h.streakCount, h.bestStreak, h.createdAt, h.updatedAt) FROM Habit h WHERE h.user.id = :userId AND h.isActive = true ORDER BY h.createdAt DESC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<HabitResponse> findActiveHabitResponsesByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT new com.habittracker.dto.HabitResponse(h.id, h.name, h.description, h.frequencyType, h.targetCount, h.isActive, h.streakCount, h.bestStreak, h.createdAt, h.updatedAt) FROM Habit h WHERE h.user.id = :userId AND h.isActive = true ORDER BY h.createdAt DESC, h.id DESC")
+    List<HabitResponse> findActiveHabitsPage(@Param("userId") Long userId, Pageable pageable);
+    
+    // Seeks past the (createdAt, id) of the previous page's last row instead of skipping rows with OFFSET
+    @Query("SELECT new com.habittracker.dto.HabitResponse(h.id, h.name, h.description, h.frequencyType, h.targetCount, h.isActive, h.streakCount, h.bestStreak, h.createdAt, h.updatedAt) FROM Habit h WHERE h.user.id = :userId AND h.isActive = true AND (h.createdAt < :cursorCreatedAt OR (h.createdAt = :cursorCreatedAt AND h.id < :cursorId)) ORDER BY h.createdAt DESC, h.id DESC")
+    List<HabitResponse> findActiveHabitsPageAfter(@Param("userId") Long userId, @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt, @Param("cursorId") Long cursorId, Pageable pageable);
+    
+    @Query("SELECT COUNT(h) FROM Habit h WHERE h.user.id = :userId")
+    Long countHabitsByUserId(@Param("userId") Long userId);
+    
     @Query("SELECT COUNT(h) FROM Habit h WHERE h.user = :user AND h.isActive = true")
     Long countActiveHabitsByUser(@Param("user") User user);
     
     @Query("SELECT h FROM Habit h WHERE h.user = :user AND h.name LIKE %:name% AND h.isActive = true")
     List<Habit> findActiveHabitsByUserAndNameContaining(@Param("user") User user, @Param("name") String name);
     
+    // Substring scan that cannot use an index; search now goes through HabitSearchIndex, this stays as the benchmark baseline
+    @Query("SELECT new com.habittracker.dto.HabitResponse(h.id, h.name, h.description, h.frequencyType, h.targetCount, h.isActive, h.streakCount, h.bestStreak, h.createdAt, h.updatedAt) FROM Habit h WHERE h.user.id = :userId AND h.name LIKE %:name% AND h.isActive = true")
+    List<HabitResponse> findActiveHabitResponsesByUserIdAndNameContaining(@Param("userId") Long userId, @Param("name") String name);
+    
+    @Query("SELECT new com.habittracker.dto.HabitResponse(h.id, h.name, h.description, h.frequencyType, h.targetCount, h.isActive, h.streakCount, h.bestStreak, h.createdAt, h.updatedAt) FROM Habit h WHERE h.user.id = :userId AND h.id IN :ids AND h.isActive = true")
+    List<HabitResponse> findActiveHabitResponsesByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+    
     @Query("SELECT CASE WHEN COUNT(h) > 0 THEN true ELSE false END FROM Habit h WHERE h.name = :name AND h.user = :user AND h.isActive = true")
     boolean existsByNameAndUser(@Param("name") String name, @Param("user") User user);
+    
+    @Query("SELECT CASE WHEN COUNT(h) > 0 THEN true ELSE false END FROM Habit h WHERE h.name = :name AND h.user.id = :userId AND h.isActive = true")
+    boolean existsByNameAndUserId(@Param("name") String name, @Param("userId") Long userId);
+    
+    @Query("SELECT h FROM Habit h WHERE h.user.id = :userId AND h.id IN :ids")
+    List<Habit> findByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT h.id FROM Habit h WHERE h.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+    
+    // Taken by every move of the habit's entries between tiers; bypasses the second-level cache
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Habit h WHERE h.id = :id")
+    Optional<Habit> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,24 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.HabitStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HabitStatsRepository extends JpaRepository<HabitStats, Long> {
+    
+    List<HabitStats> findByUserId(Long userId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE HabitStats s SET s.completedCount = s.completedCount + :completedDelta, s.completionSum = s.completionSum + :completionDelta WHERE s.habitId = :habitId")
+    int incrementStats(@Param("habitId") Long habitId, @Param("completedDelta") long completedDelta, @Param("completionDelta") long completionDelta);
+    
+    @Modifying
+    @Query("DELETE FROM HabitStats s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,21 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.UserChangeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserChangeCounterRepository extends JpaRepository<UserChangeCounter, Long> {
+    
+    @Query("SELECT c.version FROM UserChangeCounter c WHERE c.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") Long userId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserChangeCounter c SET c.version = c.version + 1 WHERE c.userId = :userId")
+    int incrementVersion(@Param("userId") Long userId);
+}
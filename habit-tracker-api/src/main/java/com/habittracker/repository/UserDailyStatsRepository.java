@@ -0,0 +1,25 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.UserDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyStatsRepository extends JpaRepository<UserDailyStats, Long> {
+    
+    List<UserDailyStats> findByUserIdAndStatDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserDailyStats s SET s.completedCount = s.completedCount + :completedDelta, s.completionSum = s.completionSum + :completionDelta WHERE s.userId = :userId AND s.statDate = :statDate")
+    int incrementStats(@Param("userId") Long userId, @Param("statDate") LocalDate statDate, @Param("completedDelta") long completedDelta, @Param("completionDelta") long completionDelta);
+    
+    @Modifying
+    @Query("DELETE FROM UserDailyStats s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,11 +1,13 @@
 package com.habittracker.repository;
 
 import com.habittracker.entity.User;
+import com.habittracker.security.UserPrincipal;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -26,4 +28,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u WHERE u.isActive = true AND u.username = :username")
     Optional<User> findActiveUserByUsername(@Param("username") String username);
+    
+    @Query("SELECT new com.habittracker.security.UserPrincipal(u.id, u.username, u.email) FROM User u WHERE u.isActive = true AND u.id = :id")
+    Optional<UserPrincipal> findPrincipalById(@Param("id") Long id);
+    
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findAllIds();
 }
@@ -19,20 +19,27 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private static final String LIVE_UPDATES_PATH = "/api/live";
+    
     @Autowired
     private JwtUtil jwtUtil;
     
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
     
+    @Autowired
+    private StreamTicketStore streamTicketStore;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                Long userId = jwtUtil.getUserIdFromToken(jwt);
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+            VerifiedToken token = StringUtils.hasText(jwt) ? jwtUtil.verifyToken(jwt) : null;
+            Long userId = token != null ? token.getUserId() : getStreamTicketUser(request);
+            
+            if (userId != null) {
+                UserDetails userDetails = customUserDetailsService.loadPrincipalById(userId);
                 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
@@ -55,4 +62,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
+    
+    // EventSource cannot set headers, so opening the live update stream may instead spend a single-use ticket
+    private Long getStreamTicketUser(HttpServletRequest request) {
+        if (!LIVE_UPDATES_PATH.equals(request.getRequestURI()) || !"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String ticket = request.getParameter("ticket");
+        return StringUtils.hasText(ticket) ? streamTicketStore.redeem(ticket) : null;
+    }
 }
@@ -1,17 +1,26 @@
 package com.habittracker.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
     
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
@@ -21,8 +30,49 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration:604800000}")
     private int refreshTokenExpirationInMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+    
+    @Value("${jwt.cache.max-size:1000}")
+    private long cacheMaxSize;
+    
+    private SecretKey signingKey;
+    
+    private JwtParser jwtParser;
+    
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    @PostConstruct
+    public void init() {
+        // Key and parser are immutable and thread-safe, so they are built once instead of per call
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        
+        // Tokens are signed and never revoked, so a verified token stays valid until it expires
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long remainingMs = verified.getExpiration() != null
+                                ? verified.getExpiration().getTime() - System.currentTimeMillis()
+                                : 0;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
     
     public String generateToken(Authentication authentication) {
@@ -33,7 +83,7 @@ public class JwtUtil {
                 .setSubject(Long.toString(userPrincipal.getId()))
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
@@ -44,37 +94,52 @@ public class JwtUtil {
                 .setSubject(Long.toString(userId))
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Parses and verifies the token once, returns null when it is not a valid token
+    public VerifiedToken verifyToken(String token) {
+        if (cacheEnabled && token != null) {
+            VerifiedToken cached = verifiedTokens.getIfPresent(token);
+            if (cached != null && !cached.isExpired()) {
+                return cached;
+            }
+        }
         
-        return Long.parseLong(claims.getSubject());
-    }
-    
-    public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            VerifiedToken verified = new VerifiedToken(
+                    Long.parseLong(claims.getSubject()),
+                    claims.getExpiration(),
+                    "refresh".equals(claims.get("type")));
+            
+            if (cacheEnabled) {
+                verifiedTokens.put(token, verified);
+            }
+            return verified;
         } catch (MalformedJwtException ex) {
-            System.err.println("Invalid JWT token");
+            log.debug("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
-            System.err.println("Expired JWT token");
+            log.debug("Expired JWT token: {}", ex.getMessage());
         } catch (UnsupportedJwtException ex) {
-            System.err.println("Unsupported JWT token");
+            log.debug("Unsupported JWT token: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
-            System.err.println("JWT claims string is empty");
+            log.debug("JWT claims string is empty");
+        }
+        return null;
+    }
+    
+    public Long getUserIdFromToken(String token) {
+        VerifiedToken verified = verifyToken(token);
+        if (verified == null) {
+            throw new JwtException("Invalid JWT token");
         }
-        return false;
+        return verified.getUserId();
+    }
+    
+    public boolean validateToken(String token) {
+        return verifyToken(token) != null;
     }
     
     public String generateRefreshToken(Long userId) {
@@ -85,30 +150,21 @@ public class JwtUtil {
                 .claim("type", "refresh")
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     public boolean isRefreshToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            
-            return "refresh".equals(claims.get("type"));
+            VerifiedToken verified = verifyToken(token);
+            return verified != null && verified.isRefresh();
         } catch (Exception e) {
             return false;
         }
     }
     
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
         
         return claims.getExpiration();
     }
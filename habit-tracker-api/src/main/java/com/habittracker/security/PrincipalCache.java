@@ -0,0 +1,58 @@
+package com.habittracker.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache implements MeterBinder {
+    
+    @Value("${app.auth.principal-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.auth.principal-cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${app.auth.principal-cache.ttl:5m}")
+    private Duration ttl;
+    
+    private Cache<Long, UserPrincipal> principals;
+    
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, principals, "auth.principals");
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public UserPrincipal get(Long userId, Function<Long, UserPrincipal> loader) {
+        return principals.get(userId, loader);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        principals.invalidate(event.getUserId());
+    }
+}
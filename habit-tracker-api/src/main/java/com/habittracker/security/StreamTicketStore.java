@@ -0,0 +1,54 @@
+package com.habittracker.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+// Tickets that open one live update stream. EventSource cannot send an Authorization header, and a bearer token in
+// the URL would end up in access logs, proxy logs and browser history; a ticket there is useless once redeemed or expired.
+@Component
+public class StreamTicketStore {
+    
+    private static final int TICKET_BYTES = 24;
+    
+    @Value("${app.live.ticket-ttl:30s}")
+    private Duration ticketTtl;
+    
+    @Value("${app.live.ticket-max-outstanding:100000}")
+    private long maxOutstanding;
+    
+    private final SecureRandom random = new SecureRandom();
+    
+    private Cache<String, Long> tickets;
+    
+    @PostConstruct
+    public void init() {
+        tickets = Caffeine.newBuilder()
+                .maximumSize(maxOutstanding)
+                .expireAfterWrite(ticketTtl)
+                .build();
+    }
+    
+    public String issue(Long userId) {
+        byte[] bytes = new byte[TICKET_BYTES];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, userId);
+        return ticket;
+    }
+    
+    // The user the ticket was issued to, or null when it is unknown, expired or already used
+    public Long redeem(String ticket) {
+        return tickets.asMap().remove(ticket);
+    }
+    
+    public Duration getTicketTtl() {
+        return ticketTtl;
+    }
+}
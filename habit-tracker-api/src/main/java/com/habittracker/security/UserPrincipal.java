@@ -24,6 +24,11 @@ public class UserPrincipal implements UserDetails {
         this.authorities = authorities;
     }
     
+    // Request-time principal: no password hash, it is only needed when logging in
+    public UserPrincipal(Long id, String username, String email) {
+        this(id, username, email, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+    
     public static UserPrincipal create(User user) {
         Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
         
@@ -0,0 +1,32 @@
+package com.habittracker.security;
+
+import java.util.Date;
+
+public class VerifiedToken {
+    
+    private final Long userId;
+    private final Date expiration;
+    private final boolean refresh;
+    
+    public VerifiedToken(Long userId, Date expiration, boolean refresh) {
+        this.userId = userId;
+        this.expiration = expiration;
+        this.refresh = refresh;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Date getExpiration() {
+        return expiration;
+    }
+    
+    public boolean isRefresh() {
+        return refresh;
+    }
+    
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
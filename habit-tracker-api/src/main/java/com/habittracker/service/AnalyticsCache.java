@@ -0,0 +1,180 @@
+package com.habittracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.habittracker.config.ReplicaReads;
+import com.habittracker.dto.AnalyticsResponse;
+import com.habittracker.event.HabitDataChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+@Component
+public class AnalyticsCache implements MeterBinder {
+    
+    private static final int GENERATION_STRIPES = 1024;
+    
+    @Value("${app.analytics.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.analytics.cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${app.analytics.cache.ttl:10m}")
+    private Duration ttl;
+    
+    private Cache<Long, CachedAnalytics> userAnalytics;
+    
+    private Cache<HabitKey, CachedAnalytics> habitAnalytics;
+    
+    // Bumped for a user's stripe on every invalidation, so a load that overlapped one does not stay cached
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    
+    @PostConstruct
+    public void init() {
+        userAnalytics = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        habitAnalytics = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userAnalytics, "analytics.user");
+        CaffeineCacheMetrics.monitor(registry, habitAnalytics, "analytics.habit");
+    }
+    
+    public AnalyticsResponse getUserAnalytics(Long userId, Supplier<AnalyticsResponse> loader) {
+        return getOrLoad(userAnalytics, userId, userId, loader);
+    }
+    
+    public AnalyticsResponse getHabitAnalytics(Long userId, Long habitId, Supplier<AnalyticsResponse> loader) {
+        return getOrLoad(habitAnalytics, userId, new HabitKey(userId, habitId), loader);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHabitDataChanged(HabitDataChangedEvent event) {
+        generations.incrementAndGet(stripeOf(event.getUserId()));
+        userAnalytics.invalidate(event.getUserId());
+        if (event.getHabitId() != null) {
+            habitAnalytics.invalidate(new HabitKey(event.getUserId(), event.getHabitId()));
+        }
+    }
+    
+    // Every cached result depends on LocalDate.now(), so nothing survives the day rollover
+    @Scheduled(cron = "0 0 0 * * *")
+    public void invalidateAll() {
+        userAnalytics.invalidateAll();
+        habitAnalytics.invalidateAll();
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("userAnalytics", describe(userAnalytics));
+        statistics.put("habitAnalytics", describe(habitAnalytics));
+        return statistics;
+    }
+    
+    private <K> AnalyticsResponse getOrLoad(Cache<K, CachedAnalytics> cache, Long userId, K key, Supplier<AnalyticsResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        
+        LocalDate today = LocalDate.now();
+        CachedAnalytics cached = cache.getIfPresent(key);
+        if (cached != null && cached.date.equals(today)) {
+            return cached.response;
+        }
+        
+        // Loaded outside the cache lock so a slow query never blocks other keys
+        boolean fromReplica = ReplicaReads.isReplicaRead();
+        int stripe = stripeOf(userId);
+        long generation = generations.get(stripe);
+        AnalyticsResponse response = loader.get();
+        // A degraded result is served once but never cached, the next request tries the full computation again.
+        // Neither is one read from a lagging replica, which could miss a change whose invalidation already ran.
+        if (!response.isPartial() && !fromReplica) {
+            cache.put(key, new CachedAnalytics(today, response));
+            // Checked after the put: an invalidation since the load started may have run before the put and
+            // missed it, so the entry is taken out again (at worst a result that was still current)
+            if (generations.get(stripe) != generation) {
+                cache.invalidate(key);
+            }
+        }
+        return response;
+    }
+    
+    private static int stripeOf(Long userId) {
+        return Math.floorMod(userId.hashCode(), GENERATION_STRIPES);
+    }
+    
+    private Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.estimatedSize());
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("evictions", stats.evictionCount());
+        description.put("hitRate", stats.hitRate());
+        return description;
+    }
+    
+    private static class CachedAnalytics {
+        private final LocalDate date;
+        private final AnalyticsResponse response;
+        
+        CachedAnalytics(LocalDate date, AnalyticsResponse response) {
+            this.date = date;
+            this.response = response;
+        }
+    }
+    
+    private static class HabitKey {
+        private final Long userId;
+        private final Long habitId;
+        
+        HabitKey(Long userId, Long habitId) {
+            this.userId = userId;
+            this.habitId = habitId;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HabitKey)) {
+                return false;
+            }
+            HabitKey other = (HabitKey) o;
+            return userId.equals(other.userId) && habitId.equals(other.habitId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, habitId);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.habittracker.service;
+
+import com.habittracker.config.ReplicaReads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Runs independent analytics queries concurrently, each in its own read-only transaction
+// on the pool the calling service method was routed to (primary or replica).
+// Every running query holds a connection, so at most max-connections of them run at once across all requests;
+// a query that finds them all taken runs on the caller, which holds no connection of its own meanwhile.
+// Kept off the Spring Executor bean type so Boot's applicationTaskExecutor stays in place.
+@Component
+public class AnalyticsFanOut implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsFanOut.class);
+    
+    @Value("${app.analytics.parallel.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.analytics.parallel.pool-size:8}")
+    private int poolSize;
+    
+    @Value("${app.analytics.parallel.max-connections:4}")
+    private int maxConnections;
+    
+    @Value("${app.analytics.parallel.queue-capacity:200}")
+    private int queueCapacity;
+    
+    @Value("${app.analytics.parallel.timeout:2s}")
+    private Duration timeout;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private ThreadPoolExecutor executor;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    private Semaphore connections;
+    
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("analytics-"));
+        executor.allowCoreThreadTimeOut(true);
+        
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        
+        connections = new Semaphore(maxConnections);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "analytics", Tags.empty()).bindTo(registry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public long newDeadline() {
+        return System.nanoTime() + timeout.toNanos();
+    }
+    
+    public <T> Future<T> submit(Supplier<T> query) {
+        if (!connections.tryAcquire()) {
+            return runOnCaller(query);
+        }
+        
+        Supplier<T> task = ReplicaReads.propagate(() -> inReadOnlyTransaction(query));
+        // A missed deadline cancels the future while the pool thread is still inside its JDBC call, so the permit
+        // is given back only once the query's transaction has ended. done() releases it just for a query
+        // cancelled before it started; whichever of the two claims the task first owns the permit.
+        AtomicBoolean claimed = new AtomicBoolean();
+        FutureTask<T> future = new FutureTask<>(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            try {
+                return task.get();
+            } finally {
+                connections.release();
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (claimed.compareAndSet(false, true)) {
+                    connections.release();
+                }
+            }
+        };
+        try {
+            executor.execute(future);
+            return future;
+        } catch (RejectedExecutionException e) {
+            // Saturated pool: run on the caller so the section is still computed, just not in parallel
+            connections.release();
+            return runOnCaller(query);
+        }
+    }
+    
+    public <T> T inReadOnlyTransaction(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+    
+    private <T> Future<T> runOnCaller(Supplier<T> query) {
+        try {
+            return CompletableFuture.completedFuture(inReadOnlyTransaction(query));
+        } catch (RuntimeException failure) {
+            return CompletableFuture.failedFuture(failure);
+        }
+    }
+    
+    // Waits until the shared deadline; a failed or late section yields the fallback and is reported as unavailable
+    public <T> T await(Future<T> future, long deadline, T fallback, String section, List<String> unavailableSections) {
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Analytics section '{}' missed its deadline", section);
+        } catch (ExecutionException e) {
+            log.warn("Analytics section '{}' failed", section, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        unavailableSections.add(section);
+        return fallback;
+    }
+}
@@ -1,28 +1,30 @@
 package com.habittracker.service;
 
 import com.habittracker.dto.AnalyticsResponse;
+import com.habittracker.dto.DailyCompletionCount;
 import com.habittracker.entity.Habit;
-import com.habittracker.entity.HabitEntry;
-import com.habittracker.entity.User;
-import com.habittracker.exception.ResourceNotFoundException;
+import com.habittracker.entity.HabitStats;
+import com.habittracker.entity.UserDailyStats;
 import com.habittracker.repository.HabitEntryRepository;
 import com.habittracker.repository.HabitRepository;
-import com.habittracker.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
     
-    @Autowired
-    private UserRepository userRepository;
+    private static final int DAILY_SERIES_DAYS = 30;
     
     @Autowired
     private HabitRepository habitRepository;
@@ -30,34 +32,89 @@ public class AnalyticsService {
     @Autowired
     private HabitEntryRepository habitEntryRepository;
     
+    @Autowired
+    private StatsRollupService statsRollupService;
+    
+    @Autowired
+    private AnalyticsCache analyticsCache;
+    
+    @Autowired
+    private CompletionCalendarService completionCalendarService;
+    
+    @Autowired
+    private AnalyticsFanOut analyticsFanOut;
+    
+    @Autowired
+    private OwnershipResolver ownershipResolver;
+    
+    // Read-only for routing, but not run in a transaction: in parallel mode every section takes its own
+    // connection, and one held by the caller while it waits for them could leave none for the sections
+    @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
     public AnalyticsResponse getUserAnalytics(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        return analyticsCache.getUserAnalytics(userId, () -> analyticsFanOut.isEnabled()
+                ? computeUserAnalytics(userId)
+                : analyticsFanOut.inReadOnlyTransaction(() -> computeUserAnalytics(userId)));
+    }
+    
+    @Transactional(readOnly = true)
+    public AnalyticsResponse getHabitAnalytics(Long habitId, Long userId) {
+        return analyticsCache.getHabitAnalytics(userId, habitId, () -> computeHabitAnalytics(habitId, userId));
+    }
+    
+    private AnalyticsResponse computeUserAnalytics(Long userId) {
+        // Its own short transaction in parallel mode, so the connection is back in the pool before the sections start
+        analyticsFanOut.inReadOnlyTransaction(() -> {
+            ownershipResolver.requireUser(userId);
+            return null;
+        });
+        
+        // Date ranges
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.minusWeeks(1);
+        LocalDate monthStart = today.minusMonths(1);
+        LocalDate seriesStart = today.minusDays(DAILY_SERIES_DAYS - 1);
+        LocalDate rangeStart = monthStart.isBefore(seriesStart) ? monthStart : seriesStart;
+        
+        Long totalHabits;
+        List<Habit> activeHabits;
+        List<UserDailyStats> dailyStats;
+        List<HabitStats> habitStats;
+        List<String> unavailableSections = new ArrayList<>();
+        
+        if (analyticsFanOut.isEnabled()) {
+            // The four reads are independent, so latency is set by the slowest one rather than their sum
+            long deadline = analyticsFanOut.newDeadline();
+            Future<Long> totalHabitsQuery = analyticsFanOut.submit(() -> habitRepository.countHabitsByUserId(userId));
+            Future<List<Habit>> activeHabitsQuery = analyticsFanOut.submit(() -> habitRepository.findActiveHabitsByUserId(userId));
+            Future<List<UserDailyStats>> dailyStatsQuery = analyticsFanOut.submit(() -> statsRollupService.getUserDailyStats(userId, rangeStart, today));
+            Future<List<HabitStats>> habitStatsQuery = analyticsFanOut.submit(() -> statsRollupService.getHabitStats(userId));
+            
+            activeHabits = analyticsFanOut.await(activeHabitsQuery, deadline, List.of(), "habits", unavailableSections);
+            totalHabits = analyticsFanOut.await(totalHabitsQuery, deadline, (long) activeHabits.size(), "totalHabits", unavailableSections);
+            dailyStats = analyticsFanOut.await(dailyStatsQuery, deadline, List.of(), "completions", unavailableSections);
+            habitStats = analyticsFanOut.await(habitStatsQuery, deadline, List.of(), "habitCompletionCounts", unavailableSections);
+        } else {
+            totalHabits = habitRepository.countHabitsByUserId(userId);
+            activeHabits = habitRepository.findActiveHabitsByUserId(userId);
+            dailyStats = statsRollupService.getUserDailyStats(userId, rangeStart, today);
+            habitStats = statsRollupService.getHabitStats(userId);
+        }
         
         AnalyticsResponse analytics = new AnalyticsResponse();
         
         // Basic habit statistics
-        List<Habit> allHabits = habitRepository.findByUser(user);
-        List<Habit> activeHabits = habitRepository.findActiveHabitsByUser(user);
-        
-        analytics.setTotalHabits((long) allHabits.size());
+        analytics.setTotalHabits(totalHabits);
         analytics.setActiveHabits((long) activeHabits.size());
         
-        // Date ranges
-        LocalDate today = LocalDate.now();
-        LocalDate weekStart = today.minusWeeks(1);
-        LocalDate monthStart = today.minusMonths(1);
+        // One read of the daily rollup covers the weekly, monthly and daily figures
+        Map<LocalDate, Long> completedByDate = new HashMap<>();
+        for (UserDailyStats day : dailyStats) {
+            completedByDate.put(day.getStatDate(), day.getCompletedCount());
+        }
         
         // Weekly and monthly completion statistics
-        Long weeklyCompletions = habitEntryRepository.findEntriesByUserAndDateRange(userId, weekStart, today)
-                .stream()
-                .filter(HabitEntry::getIsCompleted)
-                .count();
-        
-        Long monthlyCompletions = habitEntryRepository.findEntriesByUserAndDateRange(userId, monthStart, today)
-                .stream()
-                .filter(HabitEntry::getIsCompleted)
-                .count();
+        Long weeklyCompletions = sumBetween(completedByDate, weekStart, today);
+        Long monthlyCompletions = sumBetween(completedByDate, monthStart, today);
         
         analytics.setCompletedEntriesThisWeek(weeklyCompletions);
         analytics.setCompletedEntriesThisMonth(monthlyCompletions);
@@ -102,33 +159,33 @@ public class AnalyticsService {
         
         // Daily completions for the last 30 days
         Map<LocalDate, Integer> dailyCompletions = new HashMap<>();
-        for (int i = 0; i < 30; i++) {
+        for (int i = 0; i < DAILY_SERIES_DAYS; i++) {
             LocalDate date = today.minusDays(i);
-            List<HabitEntry> entriesForDate = habitEntryRepository.findEntriesByUserAndDate(userId, date);
-            int completedCount = (int) entriesForDate.stream()
-                    .filter(HabitEntry::getIsCompleted)
-                    .count();
-            dailyCompletions.put(date, completedCount);
+            dailyCompletions.put(date, completedByDate.getOrDefault(date, 0L).intValue());
         }
         analytics.setDailyCompletions(dailyCompletions);
         
         // Habit completion counts
+        Map<Long, Long> completedByHabit = new HashMap<>();
+        for (HabitStats stats : habitStats) {
+            completedByHabit.put(stats.getHabitId(), stats.getCompletedCount());
+        }
+        
         Map<String, Integer> habitCompletionCounts = new HashMap<>();
         for (Habit habit : activeHabits) {
-            Long completedCount = habitEntryRepository.countCompletedEntriesByHabit(habit);
-            habitCompletionCounts.put(habit.getName(), completedCount.intValue());
+            habitCompletionCounts.put(habit.getName(), completedByHabit.getOrDefault(habit.getId(), 0L).intValue());
         }
         analytics.setHabitCompletionCounts(habitCompletionCounts);
         
+        if (!unavailableSections.isEmpty()) {
+            analytics.setUnavailableSections(unavailableSections);
+        }
+        
         return analytics;
     }
     
-    public AnalyticsResponse getHabitAnalytics(Long habitId, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
+    private AnalyticsResponse computeHabitAnalytics(Long habitId, Long userId) {
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
         
         AnalyticsResponse analytics = new AnalyticsResponse();
         
@@ -142,8 +199,9 @@ public class AnalyticsService {
         LocalDate monthStart = today.minusMonths(1);
         
         // Weekly and monthly completion statistics for this habit
-        Long weeklyCompletions = habitEntryRepository.countCompletedEntriesByHabitAndDateRange(habit, weekStart, today);
-        Long monthlyCompletions = habitEntryRepository.countCompletedEntriesByHabitAndDateRange(habit, monthStart, today);
+        CompletionCalendar calendar = completionCalendarService.load(habit.getId(), monthStart, today);
+        Long weeklyCompletions = (long) calendar.countCompleted(weekStart, today);
+        Long monthlyCompletions = (long) calendar.countCompleted(monthStart, today);
         
         analytics.setCompletedEntriesThisWeek(weeklyCompletions);
         analytics.setCompletedEntriesThisMonth(monthlyCompletions);
@@ -163,18 +221,30 @@ public class AnalyticsService {
         analytics.setLongestStreak(habit.getBestStreak());
         
         // Daily completions for the last 30 days
+        Map<LocalDate, Long> completionSumByDate = new HashMap<>();
+        List<DailyCompletionCount> days = habitEntryRepository.countCompletedEntriesByHabitGroupedByDate(
+                habit, today.minusDays(DAILY_SERIES_DAYS - 1), today);
+        for (DailyCompletionCount day : days) {
+            completionSumByDate.put(day.getDate(), day.getCompletionSum());
+        }
+        
         Map<LocalDate, Integer> dailyCompletions = new HashMap<>();
-        for (int i = 0; i < 30; i++) {
+        for (int i = 0; i < DAILY_SERIES_DAYS; i++) {
             LocalDate date = today.minusDays(i);
-            List<HabitEntry> entriesForDate = habitEntryRepository.findEntriesByHabitAndDateRange(habit, date, date);
-            int completedCount = (int) entriesForDate.stream()
-                    .filter(HabitEntry::getIsCompleted)
-                    .mapToInt(HabitEntry::getCompletionCount)
-                    .sum();
-            dailyCompletions.put(date, completedCount);
+            dailyCompletions.put(date, completionSumByDate.getOrDefault(date, 0L).intValue());
         }
         analytics.setDailyCompletions(dailyCompletions);
         
         return analytics;
     }
+    
+    private Long sumBetween(Map<LocalDate, Long> countsByDate, LocalDate startDate, LocalDate endDate) {
+        long total = 0;
+        for (Map.Entry<LocalDate, Long> day : countsByDate.entrySet()) {
+            if (!day.getKey().isBefore(startDate) && !day.getKey().isAfter(endDate)) {
+                total += day.getValue();
+            }
+        }
+        return total;
+    }
 }
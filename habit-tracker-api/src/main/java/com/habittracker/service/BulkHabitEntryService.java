@@ -0,0 +1,169 @@
+package com.habittracker.service;
+
+import com.habittracker.dto.BulkHabitEntryItem;
+import com.habittracker.dto.BulkHabitEntryRequest;
+import com.habittracker.dto.BulkHabitEntryResponse;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.event.HabitDataChangedEvent;
+import com.habittracker.event.LiveUpdateEvent;
+import com.habittracker.exception.ResourceNotFoundException;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class BulkHabitEntryService {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private static final String INSERT_SQL = "INSERT INTO habit_entries (habit_id, user_id, entry_date, completion_count, is_completed, notes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_SQL = "UPDATE habit_entries SET completion_count = ?, is_completed = ?, notes = ?, updated_at = ? WHERE id = ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private StatsRollupService statsRollupService;
+    
+    @Autowired
+    private CompletionCalendarService completionCalendarService;
+    
+    @Autowired
+    private StreakService streakService;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Each item sets the state of one habit day, creating the entry or overwriting the existing one; the last item for a day wins
+    @Transactional
+    public BulkHabitEntryResponse importEntries(BulkHabitEntryRequest request, Long userId) {
+        Map<Long, Map<LocalDate, BulkHabitEntryItem>> itemsByHabit = new LinkedHashMap<>();
+        LocalDate startDate = null;
+        LocalDate endDate = null;
+        for (BulkHabitEntryItem item : request.getEntries()) {
+            itemsByHabit.computeIfAbsent(item.getHabitId(), id -> new LinkedHashMap<>()).put(item.getEntryDate(), item);
+            startDate = startDate == null || item.getEntryDate().isBefore(startDate) ? item.getEntryDate() : startDate;
+            endDate = endDate == null || item.getEntryDate().isAfter(endDate) ? item.getEntryDate() : endDate;
+        }
+        
+        // Ownership is checked once per habit with a single query
+        Map<Long, Habit> habits = habitRepository.findByUserIdAndIdIn(userId, itemsByHabit.keySet()).stream()
+                .collect(Collectors.toMap(Habit::getId, Function.identity()));
+        for (Long habitId : itemsByHabit.keySet()) {
+            if (!habits.containsKey(habitId)) {
+                throw new ResourceNotFoundException("Habit", "id", habitId);
+            }
+        }
+        
+        for (Habit habit : habits.values()) {
+            entryArchiveService.restoreForWrite(habit, itemsByHabit.get(habit.getId()).keySet());
+        }
+        
+        Map<Long, Map<LocalDate, HabitEntry>> existingByHabit = new HashMap<>();
+        for (HabitEntry entry : habitEntryRepository.findEntriesByHabitIdsAndDateRange(itemsByHabit.keySet(), startDate, endDate)) {
+            existingByHabit.computeIfAbsent(entry.getHabit().getId(), id -> new HashMap<>()).put(entry.getEntryDate(), entry);
+        }
+        
+        List<HabitEntry> inserts = new ArrayList<>();
+        List<HabitEntry> updates = new ArrayList<>();
+        List<HabitEntry> replaced = new ArrayList<>();
+        Map<Long, Map<LocalDate, Boolean>> completionByHabit = new HashMap<>();
+        
+        for (Map.Entry<Long, Map<LocalDate, BulkHabitEntryItem>> habitItems : itemsByHabit.entrySet()) {
+            Habit habit = habits.get(habitItems.getKey());
+            Map<LocalDate, HabitEntry> existing = existingByHabit.getOrDefault(habit.getId(), Map.of());
+            Map<LocalDate, Boolean> completion = completionByHabit.computeIfAbsent(habit.getId(), id -> new HashMap<>());
+            
+            for (BulkHabitEntryItem item : habitItems.getValue().values()) {
+                HabitEntry entry = new HabitEntry(item.getEntryDate(), item.getCompletionCount(), habit);
+                entry.setUserId(userId);
+                entry.setIsCompleted(item.getIsCompleted());
+                entry.setNotes(item.getNotes());
+                
+                HabitEntry current = existing.get(item.getEntryDate());
+                if (current != null) {
+                    entry.setId(current.getId());
+                    replaced.add(current);
+                    updates.add(entry);
+                } else {
+                    inserts.add(entry);
+                }
+                completion.put(item.getEntryDate(), Boolean.TRUE.equals(item.getIsCompleted()));
+            }
+        }
+        
+        writeEntries(inserts, updates);
+        
+        // Derived state is brought up to date once for the whole batch
+        statsRollupService.applyChanges(userId, replaced, concat(inserts, updates));
+        for (Habit habit : habits.values()) {
+            completionCalendarService.recordStates(habit.getId(), completionByHabit.get(habit.getId()));
+            streakService.recalculate(habit);
+        }
+        habitRepository.saveAll(habits.values());
+        
+        for (Habit habit : habits.values()) {
+            eventPublisher.publishEvent(new HabitDataChangedEvent(userId, habit.getId()));
+            eventPublisher.publishEvent(LiveUpdateEvent.forHabit(userId, LiveUpdateEvent.Type.ENTRIES_IMPORTED, habit));
+        }
+        
+        return new BulkHabitEntryResponse(inserts.size(), updates.size(), habits.size());
+    }
+    
+    private void writeEntries(List<HabitEntry> inserts, List<HabitEntry> updates) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, BATCH_SIZE, (ps, entry) -> {
+            ps.setLong(1, entry.getHabit().getId());
+            ps.setLong(2, entry.getUserId());
+            ps.setDate(3, Date.valueOf(entry.getEntryDate()));
+            ps.setObject(4, entry.getCompletionCount(), Types.INTEGER);
+            ps.setObject(5, entry.getIsCompleted(), Types.BOOLEAN);
+            ps.setString(6, entry.getNotes());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+        
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates, BATCH_SIZE, (ps, entry) -> {
+            ps.setObject(1, entry.getCompletionCount(), Types.INTEGER);
+            ps.setObject(2, entry.getIsCompleted(), Types.BOOLEAN);
+            ps.setString(3, entry.getNotes());
+            ps.setTimestamp(4, now);
+            ps.setLong(5, entry.getId());
+        });
+    }
+    
+    private static List<HabitEntry> concat(List<HabitEntry> first, List<HabitEntry> second) {
+        List<HabitEntry> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
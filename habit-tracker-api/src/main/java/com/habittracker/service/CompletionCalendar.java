@@ -0,0 +1,174 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.HabitCompletionWord;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class CompletionCalendar {
+    
+    public static final int DAYS_PER_WORD = 64;
+    
+    private final long firstWordIndex;
+    private final long[] words;
+    
+    private CompletionCalendar(long firstWordIndex, long[] words) {
+        this.firstWordIndex = firstWordIndex;
+        this.words = words;
+    }
+    
+    public static CompletionCalendar of(long fromWordIndex, long toWordIndex, List<HabitCompletionWord> storedWords) {
+        long[] words = new long[(int) (toWordIndex - fromWordIndex + 1)];
+        for (HabitCompletionWord word : storedWords) {
+            if (word.getWordIndex() >= fromWordIndex && word.getWordIndex() <= toWordIndex) {
+                words[(int) (word.getWordIndex() - fromWordIndex)] = word.getBits();
+            }
+        }
+        return new CompletionCalendar(fromWordIndex, words);
+    }
+    
+    public static long wordIndexOf(LocalDate date) {
+        return Math.floorDiv(date.toEpochDay(), DAYS_PER_WORD);
+    }
+    
+    public static int bitIndexOf(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay(), DAYS_PER_WORD);
+    }
+    
+    public LocalDate getStartDate() {
+        return LocalDate.ofEpochDay(firstWordIndex * DAYS_PER_WORD);
+    }
+    
+    public LocalDate getEndDate() {
+        return LocalDate.ofEpochDay((firstWordIndex + words.length) * DAYS_PER_WORD - 1);
+    }
+    
+    public boolean isCompleted(LocalDate date) {
+        if (!covers(date)) {
+            return false;
+        }
+        return (words[wordOffset(date)] & (1L << bitIndexOf(date))) != 0;
+    }
+    
+    // Population count over [from, to], clamped to the loaded window
+    public int countCompleted(LocalDate from, LocalDate to) {
+        LocalDate start = from.isBefore(getStartDate()) ? getStartDate() : from;
+        LocalDate end = to.isAfter(getEndDate()) ? getEndDate() : to;
+        if (start.isAfter(end)) {
+            return 0;
+        }
+        
+        int firstWord = wordOffset(start);
+        int lastWord = wordOffset(end);
+        int count = 0;
+        for (int i = firstWord; i <= lastWord; i++) {
+            long word = words[i];
+            if (i == firstWord) {
+                word &= -1L << bitIndexOf(start);
+            }
+            if (i == lastWord) {
+                word &= -1L >>> (DAYS_PER_WORD - 1 - bitIndexOf(end));
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+    
+    // Number of consecutive completed days ending at date, counted back to the start of the loaded window
+    public int runLengthEndingAt(LocalDate date) {
+        if (!covers(date)) {
+            return 0;
+        }
+        
+        int i = wordOffset(date);
+        int bit = bitIndexOf(date);
+        int run = Long.numberOfLeadingZeros(~(words[i] << (DAYS_PER_WORD - 1 - bit)));
+        if (run <= bit) {
+            return run;
+        }
+        
+        for (i = i - 1; i >= 0; i--) {
+            int ones = Long.numberOfLeadingZeros(~words[i]);
+            run += ones;
+            if (ones < DAYS_PER_WORD) {
+                break;
+            }
+        }
+        return run;
+    }
+    
+    // Number of consecutive completed days starting at date, counted forward to the end of the loaded window
+    public int runLengthStartingAt(LocalDate date) {
+        if (!covers(date)) {
+            return 0;
+        }
+        
+        int i = wordOffset(date);
+        int bit = bitIndexOf(date);
+        int run = Long.numberOfTrailingZeros(~(words[i] >>> bit));
+        if (run < DAYS_PER_WORD - bit) {
+            return run;
+        }
+        
+        for (i = i + 1; i < words.length; i++) {
+            int ones = Long.numberOfTrailingZeros(~words[i]);
+            run += ones;
+            if (ones < DAYS_PER_WORD) {
+                break;
+            }
+        }
+        return run;
+    }
+    
+    public LocalDate latestCompletedOnOrBefore(LocalDate date) {
+        if (date.isBefore(getStartDate())) {
+            return null;
+        }
+        LocalDate end = date.isAfter(getEndDate()) ? getEndDate() : date;
+        
+        int i = wordOffset(end);
+        long word = words[i] & (-1L >>> (DAYS_PER_WORD - 1 - bitIndexOf(end)));
+        while (word == 0) {
+            if (--i < 0) {
+                return null;
+            }
+            word = words[i];
+        }
+        return dayAt(i, DAYS_PER_WORD - 1 - Long.numberOfLeadingZeros(word));
+    }
+    
+    // Completed days from the start of the window up to and including date
+    public int rank(LocalDate date) {
+        return countCompleted(getStartDate(), date);
+    }
+    
+    // The k-th completed day of the window (1-based), or null when fewer than k days are completed
+    public LocalDate select(int k) {
+        int remaining = k;
+        for (int i = 0; i < words.length && remaining > 0; i++) {
+            int count = Long.bitCount(words[i]);
+            if (count < remaining) {
+                remaining -= count;
+                continue;
+            }
+            long word = words[i];
+            for (int j = 1; j < remaining; j++) {
+                word &= word - 1;
+            }
+            return dayAt(i, Long.numberOfTrailingZeros(word));
+        }
+        return null;
+    }
+    
+    private boolean covers(LocalDate date) {
+        return !date.isBefore(getStartDate()) && !date.isAfter(getEndDate());
+    }
+    
+    private int wordOffset(LocalDate date) {
+        return (int) (wordIndexOf(date) - firstWordIndex);
+    }
+    
+    private LocalDate dayAt(int wordOffset, int bit) {
+        return LocalDate.ofEpochDay((firstWordIndex + wordOffset) * DAYS_PER_WORD + bit);
+    }
+}
@@ -0,0 +1,193 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.HabitCompletionWord;
+import com.habittracker.repository.HabitCompletionWordRepository;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class CompletionCalendarService {
+    
+    private static final int RUN_SCAN_WORDS = 16;
+    
+    private static final String INSERT_WORD_SQL = "INSERT INTO habit_completion_words (habit_id, word_index, bits) VALUES (?, ?, ?)";
+    
+    @Autowired
+    private HabitCompletionWordRepository habitCompletionWordRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    @Autowired
+    private UniqueRowInserter uniqueRowInserter;
+    
+    @Transactional
+    public void recordChange(Long habitId, LocalDate previousDate, boolean wasCompleted, LocalDate currentDate, boolean isCompleted) {
+        boolean sameDate = previousDate != null && previousDate.equals(currentDate);
+        
+        if (previousDate != null && wasCompleted && !(sameDate && isCompleted)) {
+            setCompleted(habitId, previousDate, false);
+        }
+        if (currentDate != null && isCompleted && !(sameDate && wasCompleted)) {
+            setCompleted(habitId, currentDate, true);
+        }
+    }
+    
+    // Applies the final completion state of many days with one locked read and write per touched word
+    @Transactional
+    public void recordStates(Long habitId, Map<LocalDate, Boolean> completedByDate) {
+        Map<Long, long[]> masks = new HashMap<>();
+        for (Map.Entry<LocalDate, Boolean> day : completedByDate.entrySet()) {
+            long[] mask = masks.computeIfAbsent(CompletionCalendar.wordIndexOf(day.getKey()), index -> new long[2]);
+            mask[Boolean.TRUE.equals(day.getValue()) ? 0 : 1] |= 1L << CompletionCalendar.bitIndexOf(day.getKey());
+        }
+        
+        for (Map.Entry<Long, long[]> mask : masks.entrySet()) {
+            updateWord(habitId, mask.getKey(), mask.getValue()[0], mask.getValue()[1]);
+        }
+    }
+    
+    public CompletionCalendar load(Long habitId, LocalDate from, LocalDate to) {
+        long fromIndex = CompletionCalendar.wordIndexOf(from);
+        long toIndex = CompletionCalendar.wordIndexOf(to);
+        List<HabitCompletionWord> words = habitCompletionWordRepository
+                .findByHabitIdAndWordIndexBetweenOrderByWordIndex(habitId, fromIndex, toIndex);
+        return CompletionCalendar.of(fromIndex, toIndex, words);
+    }
+    
+    public LocalDate findLatestCompleted(Long habitId, LocalDate onOrBefore) {
+        // The newest non-empty word may only hold days after onOrBefore, the one below it then has the answer
+        List<HabitCompletionWord> words = habitCompletionWordRepository.findNonEmptyWordsDownFrom(
+                habitId, CompletionCalendar.wordIndexOf(onOrBefore), PageRequest.of(0, 2));
+        if (words.isEmpty()) {
+            return null;
+        }
+        
+        long fromIndex = words.get(words.size() - 1).getWordIndex();
+        return CompletionCalendar.of(fromIndex, words.get(0).getWordIndex(), words).latestCompletedOnOrBefore(onOrBefore);
+    }
+    
+    // First day of the run of completed days that ends at completedDate
+    public LocalDate findRunStart(Long habitId, LocalDate completedDate) {
+        LocalDate runStart = completedDate;
+        LocalDate scanFrom = completedDate;
+        
+        while (true) {
+            LocalDate windowStart = scanFrom.minusDays((long) RUN_SCAN_WORDS * CompletionCalendar.DAYS_PER_WORD - 1);
+            CompletionCalendar calendar = load(habitId, windowStart, scanFrom);
+            int run = calendar.runLengthEndingAt(scanFrom);
+            if (run == 0) {
+                return runStart;
+            }
+            
+            runStart = scanFrom.minusDays(run - 1L);
+            if (runStart.isAfter(calendar.getStartDate())) {
+                return runStart;
+            }
+            scanFrom = runStart.minusDays(1);
+        }
+    }
+    
+    // Length of the run of completed days through completedDate, from one window around it unless the run reaches its edge
+    public int findRunLength(Long habitId, LocalDate completedDate) {
+        long halfWindow = (long) RUN_SCAN_WORDS / 2 * CompletionCalendar.DAYS_PER_WORD;
+        CompletionCalendar calendar = load(habitId, completedDate.minusDays(halfWindow), completedDate.plusDays(halfWindow));
+        int before = calendar.runLengthEndingAt(completedDate);
+        int after = calendar.runLengthStartingAt(completedDate);
+        
+        LocalDate runStart = completedDate.minusDays(before - 1L);
+        LocalDate runEnd = completedDate.plusDays(after - 1L);
+        if (!runStart.isAfter(calendar.getStartDate())) {
+            runStart = findRunStart(habitId, runStart);
+        }
+        if (!runEnd.isBefore(calendar.getEndDate())) {
+            runEnd = findRunEnd(habitId, runEnd);
+        }
+        return (int) ChronoUnit.DAYS.between(runStart, runEnd) + 1;
+    }
+    
+    @Transactional
+    public void rebuildUser(Long userId) {
+        for (Long habitId : habitRepository.findIdsByUserId(userId)) {
+            rebuildHabit(habitId);
+        }
+    }
+    
+    @Transactional
+    public void rebuildHabit(Long habitId) {
+        habitCompletionWordRepository.deleteByHabitId(habitId);
+        
+        List<LocalDate> completedDates = new ArrayList<>(habitEntryRepository.findAllCompletedEntryDates(habitId));
+        completedDates.addAll(entryArchiveService.findArchivedCompletedDates(habitId));
+        
+        Map<Long, Long> words = new HashMap<>();
+        for (LocalDate date : completedDates) {
+            words.merge(CompletionCalendar.wordIndexOf(date), 1L << CompletionCalendar.bitIndexOf(date), (a, b) -> a | b);
+        }
+        
+        for (Map.Entry<Long, Long> word : words.entrySet()) {
+            habitCompletionWordRepository.save(new HabitCompletionWord(habitId, word.getKey(), word.getValue()));
+        }
+    }
+    
+    private void setCompleted(Long habitId, LocalDate date, boolean completed) {
+        long mask = 1L << CompletionCalendar.bitIndexOf(date);
+        updateWord(habitId, CompletionCalendar.wordIndexOf(date), completed ? mask : 0L, completed ? 0L : mask);
+    }
+    
+    // Sets and clears bits of one word under its row lock. A word is created by the first completed day in it;
+    // when a concurrent write created it first, the insert loses on the unique key and the bits go into that row.
+    private void updateWord(Long habitId, long wordIndex, long setMask, long clearMask) {
+        Optional<HabitCompletionWord> existing = habitCompletionWordRepository.findByHabitIdAndWordIndex(habitId, wordIndex);
+        if (existing.isEmpty()) {
+            if (setMask == 0 || uniqueRowInserter.insertIfAbsent(INSERT_WORD_SQL, habitId, wordIndex, setMask)) {
+                return;
+            }
+            existing = habitCompletionWordRepository.findByHabitIdAndWordIndex(habitId, wordIndex);
+        }
+        
+        HabitCompletionWord word = existing.orElseThrow(() ->
+                new IllegalStateException("Completion word " + wordIndex + " of habit " + habitId + " was neither inserted nor found"));
+        word.setBits((word.getBits() | setMask) & ~clearMask);
+        habitCompletionWordRepository.save(word);
+    }
+    
+    // Last day of the run of completed days that starts at completedDate
+    private LocalDate findRunEnd(Long habitId, LocalDate completedDate) {
+        LocalDate runEnd = completedDate;
+        LocalDate scanFrom = completedDate;
+        
+        while (true) {
+            LocalDate windowEnd = scanFrom.plusDays((long) RUN_SCAN_WORDS * CompletionCalendar.DAYS_PER_WORD - 1);
+            CompletionCalendar calendar = load(habitId, scanFrom, windowEnd);
+            int run = calendar.runLengthStartingAt(scanFrom);
+            if (run == 0) {
+                return runEnd;
+            }
+            
+            runEnd = scanFrom.plusDays(run - 1L);
+            if (runEnd.isBefore(calendar.getEndDate())) {
+                return runEnd;
+            }
+            scanFrom = runEnd.plusDays(1);
+        }
+    }
+}
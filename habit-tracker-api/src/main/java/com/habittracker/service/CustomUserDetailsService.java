@@ -3,6 +3,7 @@ package com.habittracker.service;
 import com.habittracker.entity.User;
 import com.habittracker.exception.ResourceNotFoundException;
 import com.habittracker.repository.UserRepository;
+import com.habittracker.security.PrincipalCache;
 import com.habittracker.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +18,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PrincipalCache principalCache;
+    
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
@@ -33,4 +37,19 @@ public class CustomUserDetailsService implements UserDetailsService {
         
         return UserPrincipal.create(user);
     }
+    
+    // Principal for an already verified token: served from the cache, or a single column projection outside any transaction.
+    // Either way a deactivated user is not found.
+    public UserDetails loadPrincipalById(Long id) {
+        if (!principalCache.isEnabled()) {
+            return loadActivePrincipal(id);
+        }
+        
+        return principalCache.get(id, this::loadActivePrincipal);
+    }
+    
+    private UserPrincipal loadActivePrincipal(Long id) {
+        return userRepository.findPrincipalById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+    }
 }
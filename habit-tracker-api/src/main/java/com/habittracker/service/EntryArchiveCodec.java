@@ -0,0 +1,158 @@
+package com.habittracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.dto.HabitEntryResponse;
+import com.habittracker.entity.HabitEntryArchive;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Packs one habit's entries of one year into a HabitEntryArchive and back. Entry ids survive the round trip
+// so archived entries keep their identity; the created and updated timestamps are not retained.
+public final class EntryArchiveCodec {
+    
+    private static final ObjectMapper NOTES_MAPPER = new ObjectMapper();
+    
+    private static final TypeReference<TreeMap<Integer, String>> NOTES_TYPE = new TypeReference<>() {};
+    
+    private EntryArchiveCodec() {}
+    
+    // At most one entry per day, all within the given year
+    public static HabitEntryArchive encode(Long habitId, int year, Collection<HabitEntryResponse> entries) {
+        List<HabitEntryResponse> byDay = new ArrayList<>(entries);
+        byDay.sort(Comparator.comparing(HabitEntryResponse::getEntryDate));
+        
+        BitSet loggedDays = new BitSet(366);
+        BitSet completedDays = new BitSet(366);
+        ByteArrayOutputStream counts = new ByteArrayOutputStream();
+        ByteArrayOutputStream ids = new ByteArrayOutputStream();
+        Map<Integer, String> notes = new TreeMap<>();
+        int completedCount = 0;
+        long completionSum = 0;
+        long previousId = 0;
+        
+        for (HabitEntryResponse entry : byDay) {
+            int day = entry.getEntryDate().getDayOfYear() - 1;
+            loggedDays.set(day);
+            // Zero stands for a missing count
+            writeVarint(counts, entry.getCompletionCount() != null ? zigzag(entry.getCompletionCount()) + 1 : 0);
+            // Ids grow roughly with the date, so the deltas mostly fit in one or two bytes
+            writeVarint(ids, zigzag(entry.getId() - previousId));
+            previousId = entry.getId();
+            
+            if (Boolean.TRUE.equals(entry.getIsCompleted())) {
+                completedDays.set(day);
+                completedCount++;
+                completionSum += entry.getCompletionCount() != null ? entry.getCompletionCount() : 0;
+            }
+            if (entry.getNotes() != null && !entry.getNotes().isEmpty()) {
+                notes.put(day + 1, entry.getNotes());
+            }
+        }
+        
+        HabitEntryArchive archive = new HabitEntryArchive(habitId, year);
+        archive.setEntryCount(byDay.size());
+        archive.setCompletedCount(completedCount);
+        archive.setCompletionSum(completionSum);
+        archive.setLoggedDays(loggedDays.toByteArray());
+        archive.setCompletedDays(completedDays.toByteArray());
+        archive.setCompletionCounts(counts.toByteArray());
+        archive.setEntryIds(ids.toByteArray());
+        archive.setNotes(notes.isEmpty() ? null : writeNotes(notes));
+        return archive;
+    }
+    
+    // Entries in ascending date order, without timestamps
+    public static List<HabitEntryResponse> decode(HabitEntryArchive archive) {
+        BitSet loggedDays = BitSet.valueOf(archive.getLoggedDays());
+        BitSet completedDays = BitSet.valueOf(archive.getCompletedDays());
+        VarintReader counts = new VarintReader(archive.getCompletionCounts());
+        VarintReader ids = new VarintReader(archive.getEntryIds());
+        Map<Integer, String> notes = archive.getNotes() != null ? readNotes(archive.getNotes()) : Map.of();
+        LocalDate firstDay = LocalDate.of(archive.getArchiveYear(), 1, 1);
+        
+        List<HabitEntryResponse> entries = new ArrayList<>(archive.getEntryCount());
+        long id = 0;
+        for (int day = loggedDays.nextSetBit(0); day >= 0; day = loggedDays.nextSetBit(day + 1)) {
+            long count = counts.next();
+            id += unzigzag(ids.next());
+            entries.add(new HabitEntryResponse(id, firstDay.plusDays(day), count == 0 ? null : (int) unzigzag(count - 1),
+                    completedDays.get(day), notes.get(day + 1), null, null));
+        }
+        return entries;
+    }
+    
+    public static boolean containsEntryId(HabitEntryArchive archive, Long entryId) {
+        VarintReader ids = new VarintReader(archive.getEntryIds());
+        long id = 0;
+        for (int i = 0; i < archive.getEntryCount(); i++) {
+            id += unzigzag(ids.next());
+            if (id == entryId) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static String writeNotes(Map<Integer, String> notes) {
+        try {
+            return NOTES_MAPPER.writeValueAsString(notes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode archived notes", e);
+        }
+    }
+    
+    private static Map<Integer, String> readNotes(String notes) {
+        try {
+            return NOTES_MAPPER.readValue(notes, NOTES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not decode archived notes", e);
+        }
+    }
+    
+    private static class VarintReader {
+        private final byte[] bytes;
+        private int position;
+        
+        VarintReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+        
+        long next() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = bytes[position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.habittracker.service;
+
+import com.habittracker.dto.HabitEntryResponse;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.HabitEntryArchive;
+import com.habittracker.repository.HabitEntryArchiveRepository;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Cold tier of habit_entries: whole years of a habit compacted into one HabitEntryArchive each.
+// A day lives in exactly one tier. Reads only consult the archives of habits with archivedThroughYear set,
+// and a write to an archived year first restores that year to habit_entries with the original entry ids.
+// Moves between tiers hold the habit's row lock, so the job and a write restoring the same years never interleave.
+@Service
+public class EntryArchiveService {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private static final LocalDate EARLIEST_ENTRY_DATE = LocalDate.of(1000, 1, 1);
+    
+    private static final String RESTORE_SQL = "INSERT INTO habit_entries (id, habit_id, user_id, entry_date, completion_count, is_completed, notes, created_at, updated_at) "
+            + "VALUES (?, ?, (SELECT h.user_id FROM habits h WHERE h.id = ?), ?, ?, ?, ?, ?, ?)";
+    
+    // Same order as the repository listings: entryDate, then id, descending
+    private static final Comparator<HabitEntryResponse> NEWEST_FIRST = Comparator.comparing(HabitEntryResponse::getEntryDate)
+            .thenComparing(HabitEntryResponse::getId)
+            .reversed();
+    
+    @Autowired
+    private HabitEntryArchiveRepository habitEntryArchiveRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Moves every entry of the habit up to the end of throughYear into the archive, returns how many were moved
+    @Transactional
+    public int compactHabit(Long habitId, int throughYear) {
+        Optional<Habit> locked = habitRepository.findByIdForUpdate(habitId);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        
+        Habit habit = locked.get();
+        List<HabitEntryResponse> entries = habitEntryRepository.findEntryResponsesByHabitIdAndDateRange(
+                habitId, EARLIEST_ENTRY_DATE, LocalDate.of(throughYear, 12, 31));
+        Map<Integer, List<HabitEntryResponse>> entriesByYear = entries.stream()
+                .collect(Collectors.groupingBy(entry -> entry.getEntryDate().getYear(), TreeMap::new, Collectors.toList()));
+        
+        for (Map.Entry<Integer, List<HabitEntryResponse>> year : entriesByYear.entrySet()) {
+            Map<LocalDate, HabitEntryResponse> byDate = new TreeMap<>();
+            // Writes restore a year before touching it, so this only finds an archive after an interrupted restore
+            Optional<HabitEntryArchive> existing = habitEntryArchiveRepository.findByHabitIdAndArchiveYear(habitId, year.getKey());
+            existing.ifPresent(archive -> EntryArchiveCodec.decode(archive).forEach(entry -> byDate.put(entry.getEntryDate(), entry)));
+            year.getValue().forEach(entry -> byDate.put(entry.getEntryDate(), entry));
+            
+            HabitEntryArchive archive = EntryArchiveCodec.encode(habitId, year.getKey(), byDate.values());
+            existing.ifPresent(previous -> archive.setId(previous.getId()));
+            habitEntryArchiveRepository.save(archive);
+            // Only the rows encoded above: an entry written to this year since they were read stays in
+            // habit_entries, where listings merge it with the archive, and is compacted by the next run
+            deleteEntries(year.getValue());
+        }
+        
+        habit.setArchivedThroughYear(habitEntryArchiveRepository.findLatestArchiveYear(habitId));
+        return entries.size();
+    }
+    
+    // Moves archived years after throughYear back into habit_entries, for when the hot horizon was widened
+    @Transactional
+    public int restoreYearsAfter(Long habitId, int throughYear) {
+        Optional<Habit> locked = habitRepository.findByIdForUpdate(habitId);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        
+        List<HabitEntryArchive> archives = habitEntryArchiveRepository.findByHabitIdAndArchiveYearBetweenOrderByArchiveYear(
+                habitId, throughYear + 1, Integer.MAX_VALUE);
+        int restored = 0;
+        for (HabitEntryArchive archive : archives) {
+            restored += restore(archive);
+        }
+        locked.get().setArchivedThroughYear(habitEntryArchiveRepository.findLatestArchiveYear(habitId));
+        return restored;
+    }
+    
+    // Called before entries of these dates are written. The habit must be managed: its archivedThroughYear is
+    // updated in place so the habit's own flush does not write back a stale value.
+    @Transactional
+    public void restoreForWrite(Habit habit, Collection<LocalDate> dates) {
+        if (archivedYears(habit, dates).isEmpty()) {
+            return;
+        }
+        
+        // Re-read under the habit's lock, the tiering job may have moved years since the habit was loaded
+        lockForTierChange(habit);
+        boolean restored = false;
+        for (Integer year : archivedYears(habit, dates)) {
+            Optional<HabitEntryArchive> archive = habitEntryArchiveRepository.findByHabitIdAndArchiveYear(habit.getId(), year);
+            if (archive.isPresent()) {
+                restore(archive.get());
+                restored = true;
+            }
+        }
+        if (restored) {
+            habit.setArchivedThroughYear(habitEntryArchiveRepository.findLatestArchiveYear(habit.getId()));
+        }
+    }
+    
+    public void restoreForWrite(Habit habit, LocalDate date) {
+        restoreForWrite(habit, List.of(date));
+    }
+    
+    // Restores the archived year holding entryId so the entry can be updated or deleted like any other
+    @Transactional
+    public boolean restoreEntry(Habit habit, Long entryId) {
+        if (habit.getArchivedThroughYear() == null) {
+            return false;
+        }
+        
+        lockForTierChange(habit);
+        for (HabitEntryArchive archive : habitEntryArchiveRepository.findByHabitIdOrderByArchiveYear(habit.getId())) {
+            if (EntryArchiveCodec.containsEntryId(archive, entryId)) {
+                restore(archive);
+                habit.setArchivedThroughYear(habitEntryArchiveRepository.findLatestArchiveYear(habit.getId()));
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Archived entries of the habit within [from, to], newest first
+    public List<HabitEntryResponse> findArchived(Habit habit, LocalDate from, LocalDate to) {
+        Integer archivedThroughYear = habit.getArchivedThroughYear();
+        if (archivedThroughYear == null || from.getYear() > archivedThroughYear || from.isAfter(to)) {
+            return List.of();
+        }
+        
+        List<HabitEntryResponse> entries = new ArrayList<>();
+        for (HabitEntryArchive archive : habitEntryArchiveRepository.findByHabitIdAndArchiveYearBetweenOrderByArchiveYear(
+                habit.getId(), from.getYear(), Math.min(to.getYear(), archivedThroughYear))) {
+            for (HabitEntryResponse entry : EntryArchiveCodec.decode(archive)) {
+                if (!entry.getEntryDate().isBefore(from) && !entry.getEntryDate().isAfter(to)) {
+                    entries.add(entry);
+                }
+            }
+        }
+        entries.sort(NEWEST_FIRST);
+        return entries;
+    }
+    
+    // Hot rows of a listing plus the archived entries in the same range, newest first
+    public List<HabitEntryResponse> mergeArchived(Habit habit, List<HabitEntryResponse> hotEntries, LocalDate from, LocalDate to) {
+        List<HabitEntryResponse> archived = findArchived(habit, from, to);
+        if (archived.isEmpty()) {
+            return hotEntries;
+        }
+        
+        return mergeSorted(hotEntries, archived);
+    }
+    
+    // A page of hot rows (at most maxRows, after the cursor) merged with the archived entries that sort after the cursor.
+    // Archived days may interleave with hot ones once a year was restored, so this merges rather than appends.
+    // Only the archived years that can still reach the page are decoded, so a page costs the same however deep it is.
+    public List<HabitEntryResponse> mergeArchivedPage(Habit habit, List<HabitEntryResponse> hotPage, LocalDate from, LocalDate to,
+                                                      PageCursor after, int maxRows) {
+        Integer archivedThroughYear = habit.getArchivedThroughYear();
+        LocalDate upTo = after != null && after.getSortKeyAsDate().isBefore(to) ? after.getSortKeyAsDate() : to;
+        // A full hot page ends at its last row, archived days older than that would be cut off the page anyway
+        LocalDate downTo = from;
+        if (hotPage.size() >= maxRows && hotPage.get(maxRows - 1).getEntryDate().isAfter(from)) {
+            downTo = hotPage.get(maxRows - 1).getEntryDate();
+        }
+        if (archivedThroughYear == null || downTo.getYear() > archivedThroughYear || downTo.isAfter(upTo)) {
+            return hotPage;
+        }
+        
+        // Newest year first, until maxRows archived entries are collected: every entry of an older year sorts after them
+        List<Integer> years = habitEntryArchiveRepository.findArchiveYears(habit.getId(), downTo.getYear(),
+                Math.min(upTo.getYear(), archivedThroughYear));
+        List<HabitEntryResponse> archived = new ArrayList<>();
+        for (int i = years.size() - 1; i >= 0 && archived.size() < maxRows; i--) {
+            List<HabitEntryResponse> yearEntries = new ArrayList<>();
+            for (HabitEntryResponse entry : decodeYear(habit.getId(), years.get(i))) {
+                if (!entry.getEntryDate().isBefore(downTo) && !entry.getEntryDate().isAfter(upTo) && sortsAfter(entry, after)) {
+                    yearEntries.add(entry);
+                }
+            }
+            yearEntries.sort(NEWEST_FIRST);
+            archived.addAll(yearEntries);
+        }
+        if (archived.isEmpty()) {
+            return hotPage;
+        }
+        
+        List<HabitEntryResponse> merged = mergeSorted(hotPage, archived);
+        return merged.size() > maxRows ? merged.subList(0, maxRows) : merged;
+    }
+    
+    public List<LocalDate> findArchivedCompletedDates(Long habitId) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (HabitEntryArchive archive : habitEntryArchiveRepository.findByHabitIdOrderByArchiveYear(habitId)) {
+            for (HabitEntryResponse entry : EntryArchiveCodec.decode(archive)) {
+                if (Boolean.TRUE.equals(entry.getIsCompleted())) {
+                    dates.add(entry.getEntryDate());
+                }
+            }
+        }
+        return dates;
+    }
+    
+    // Years archived for the habit, oldest first; with decodeYear a caller can walk the archive one year at a time
+    public List<Integer> findArchiveYears(Long habitId) {
+        return habitEntryArchiveRepository.findArchiveYears(habitId, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+    
+    // Entries of one archived year in ascending date order. The archive is detached once decoded, so walking a long
+    // history does not keep every year's bitmaps in the persistence context.
+    public List<HabitEntryResponse> decodeYear(Long habitId, int year) {
+        Optional<HabitEntryArchive> archive = habitEntryArchiveRepository.findByHabitIdAndArchiveYear(habitId, year);
+        if (archive.isEmpty()) {
+            return List.of();
+        }
+        
+        List<HabitEntryResponse> entries = EntryArchiveCodec.decode(archive.get());
+        entityManager.detach(archive.get());
+        return entries;
+    }
+    
+    // Still encoded, grouped by habit and in year order
+    public Map<Long, List<HabitEntryArchive>> findArchivesByHabitOfUser(Long userId) {
+        return habitEntryArchiveRepository.findByUserId(userId).stream()
+                .sorted(Comparator.comparing(HabitEntryArchive::getArchiveYear))
+                .collect(Collectors.groupingBy(HabitEntryArchive::getHabitId));
+    }
+    
+    private static TreeSet<Integer> archivedYears(Habit habit, Collection<LocalDate> dates) {
+        Integer archivedThroughYear = habit.getArchivedThroughYear();
+        if (archivedThroughYear == null) {
+            return new TreeSet<>();
+        }
+        return dates.stream()
+                .map(LocalDate::getYear)
+                .filter(year -> year <= archivedThroughYear)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+    
+    // Same row lock the tiering job takes, and the habit's state reloaded from the row rather than the cache
+    private void lockForTierChange(Habit habit) {
+        entityManager.refresh(habit, LockModeType.PESSIMISTIC_WRITE);
+    }
+    
+    private void deleteEntries(List<HabitEntryResponse> entries) {
+        List<Long> ids = entries.stream().map(HabitEntryResponse::getId).toList();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            habitEntryRepository.deleteByIdIn(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+        }
+    }
+    
+    // Timestamps are not kept in the archive, restored rows are stamped with the start of their day
+    private int restore(HabitEntryArchive archive) {
+        List<HabitEntryResponse> entries = EntryArchiveCodec.decode(archive);
+        jdbcTemplate.batchUpdate(RESTORE_SQL, entries, BATCH_SIZE, (ps, entry) -> {
+            Timestamp dayStart = Timestamp.valueOf(entry.getEntryDate().atStartOfDay());
+            ps.setLong(1, entry.getId());
+            ps.setLong(2, archive.getHabitId());
+            ps.setLong(3, archive.getHabitId());
+            ps.setDate(4, Date.valueOf(entry.getEntryDate()));
+            ps.setObject(5, entry.getCompletionCount(), Types.INTEGER);
+            ps.setBoolean(6, Boolean.TRUE.equals(entry.getIsCompleted()));
+            ps.setString(7, entry.getNotes());
+            ps.setTimestamp(8, dayStart);
+            ps.setTimestamp(9, dayStart);
+        });
+        habitEntryArchiveRepository.delete(archive);
+        return entries.size();
+    }
+    
+    private static boolean sortsAfter(HabitEntryResponse entry, PageCursor cursor) {
+        if (cursor == null) {
+            return true;
+        }
+        LocalDate cursorDate = cursor.getSortKeyAsDate();
+        return entry.getEntryDate().isBefore(cursorDate) || (entry.getEntryDate().equals(cursorDate) && entry.getId() < cursor.getId());
+    }
+    
+    private static List<HabitEntryResponse> mergeSorted(List<HabitEntryResponse> first, List<HabitEntryResponse> second) {
+        List<HabitEntryResponse> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            if (j >= second.size() || (i < first.size() && NEWEST_FIRST.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,65 @@
+package com.habittracker.service;
+
+import com.habittracker.repository.HabitEntryArchiveRepository;
+import com.habittracker.repository.HabitEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Keeps habit_entries down to the last hot-days of history. Whole years older than that are compacted into
+// habit_entry_archives, and archived years that fall back inside the horizon (after raising hot-days) are restored.
+@Component
+public class EntryTieringJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EntryTieringJob.class);
+    
+    // Analytics windows reach back at most a month and only read habit_entries
+    private static final int MIN_HOT_DAYS = 31;
+    
+    @Value("${app.entries.tiering.hot-days:400}")
+    private int hotDays;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private HabitEntryArchiveRepository habitEntryArchiveRepository;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    @Scheduled(cron = "${app.entries.tiering.cron:0 30 3 * * *}")
+    public void run() {
+        int throughYear = archiveThroughYear(LocalDate.now());
+        
+        // One transaction per habit keeps the job restartable and its locks short
+        int compactedHabits = 0;
+        long compactedEntries = 0;
+        for (Long habitId : habitEntryRepository.findHabitIdsWithEntriesBefore(LocalDate.of(throughYear + 1, 1, 1))) {
+            compactedEntries += entryArchiveService.compactHabit(habitId, throughYear);
+            compactedHabits++;
+        }
+        
+        List<Long> widenedHabitIds = habitEntryArchiveRepository.findHabitIdsWithArchivesAfter(throughYear);
+        long restoredEntries = 0;
+        for (Long habitId : widenedHabitIds) {
+            restoredEntries += entryArchiveService.restoreYearsAfter(habitId, throughYear);
+        }
+        
+        if (compactedHabits > 0 || !widenedHabitIds.isEmpty()) {
+            logger.info("Entry tiering through {}: archived {} entries of {} habits, restored {} entries of {} habits",
+                    throughYear, compactedEntries, compactedHabits, restoredEntries, widenedHabitIds.size());
+        }
+    }
+    
+    // Only whole years are archived, so the latest archived year ends before the hot horizon starts
+    int archiveThroughYear(LocalDate today) {
+        return today.minusDays(Math.max(hotDays, MIN_HOT_DAYS)).getYear() - 1;
+    }
+}
@@ -0,0 +1,250 @@
+package com.habittracker.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.dto.HabitEntryResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+
+@Service
+public class ExportService {
+    
+    private static final String ENTRIES_SQL = "SELECT h.id AS habit_id, h.name AS habit_name, h.archived_through_year, e.id AS entry_id, e.entry_date, e.completion_count, e.is_completed, e.notes, e.created_at, e.updated_at "
+            + "FROM habits h LEFT JOIN habit_entries e ON e.habit_id = h.id "
+            + "WHERE h.user_id = ? ORDER BY h.id, e.entry_date";
+    
+    private static final String CSV_HEADER = "habitId,habitName,entryId,entryDate,completionCount,isCompleted,notes,createdAt,updatedAt";
+    
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+    
+    @Value("${app.export.max-concurrent:2}")
+    private int maxConcurrentExports;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    private Semaphore exportSlots;
+    
+    @PostConstruct
+    public void init() {
+        exportSlots = new Semaphore(maxConcurrentExports);
+    }
+    
+    // An export holds a pooled connection and its transaction until the last row is written, which for a slow
+    // client can be the whole async timeout. Only a few run at once so they cannot drain the pool.
+    public boolean tryStartExport() {
+        return exportSlots.tryAcquire();
+    }
+    
+    public void finishExport() {
+        exportSlots.release();
+    }
+    
+    // One JSON object per line, written as rows arrive from the cursor
+    @Transactional(readOnly = true)
+    public void exportEntriesAsNdjson(Long userId, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+        
+        streamEntries(userId, (habitId, habitName, entry) -> {
+            generator.writeStartObject();
+            generator.writeNumberField("habitId", habitId);
+            generator.writeStringField("habitName", habitName);
+            generator.writeNumberField("entryId", entry.getId());
+            generator.writeStringField("entryDate", entry.getEntryDate().toString());
+            writeNullableNumber(generator, "completionCount", entry.getCompletionCount());
+            writeNullableBoolean(generator, "isCompleted", entry.getIsCompleted());
+            generator.writeStringField("notes", entry.getNotes());
+            generator.writeStringField("createdAt", toIsoString(entry.getCreatedAt()));
+            generator.writeStringField("updatedAt", toIsoString(entry.getUpdatedAt()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        });
+        generator.flush();
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportEntriesAsCsv(Long userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        
+        streamEntries(userId, (habitId, habitName, entry) -> {
+            writer.write(Long.toString(habitId));
+            writer.write(',');
+            writer.write(csvField(habitName));
+            writer.write(',');
+            writer.write(Long.toString(entry.getId()));
+            writer.write(',');
+            writer.write(entry.getEntryDate().toString());
+            writer.write(',');
+            writer.write(csvField(entry.getCompletionCount()));
+            writer.write(',');
+            writer.write(csvField(entry.getIsCompleted()));
+            writer.write(',');
+            writer.write(csvField(entry.getNotes()));
+            writer.write(',');
+            writer.write(csvField(toIsoString(entry.getCreatedAt())));
+            writer.write(',');
+            writer.write(csvField(toIsoString(entry.getUpdatedAt())));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+    
+    // Forward-only, read-only cursor with a fixed fetch size so only one batch of rows is held at a time.
+    // MySQL Connector/J honours the fetch size only with useCursorFetch=true on the URL, otherwise it reads the whole result.
+    // Archived entries are interleaved per habit in date order; the LEFT JOIN keeps habits whose entries are all archived.
+    // A habit's archive is read a year at a time as the cursor reaches it, on the same connection, which MySQL allows
+    // while the cursor is open only with useCursorFetch=true as well.
+    private void streamEntries(Long userId, EntryWriter writer) {
+        ArchivedEntryMerger merger = new ArchivedEntryMerger(entryArchiveService, writer);
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ENTRIES_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, userId);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            long habitId = rs.getLong("habit_id");
+            String habitName = rs.getString("habit_name");
+            boolean archived = rs.getObject("archived_through_year") != null;
+            long entryId = rs.getLong("entry_id");
+            HabitEntryResponse entry = rs.wasNull() ? null : new HabitEntryResponse(
+                    entryId,
+                    rs.getDate("entry_date").toLocalDate(),
+                    rs.getObject("completion_count", Integer.class),
+                    rs.getObject("is_completed", Boolean.class),
+                    rs.getString("notes"),
+                    toLocalDateTime(rs.getTimestamp("created_at")),
+                    toLocalDateTime(rs.getTimestamp("updated_at")));
+            merger.accept(habitId, habitName, archived, entry);
+        });
+        merger.finish();
+    }
+    
+    private void writeNullableNumber(JsonGenerator generator, String field, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+    
+    private void writeNullableBoolean(JsonGenerator generator, String field, Boolean value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeBooleanField(field, value);
+        }
+    }
+    
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+    
+    private String toIsoString(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toString() : null;
+    }
+    
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
+    private interface EntryWriter {
+        void write(long habitId, String habitName, HabitEntryResponse entry) throws IOException;
+    }
+    
+    // Rows arrive ordered by habit and date; before each hot row the habit's older archived entries are written.
+    // At most one archived year is decoded at a time, and only once the rows have reached it.
+    private static class ArchivedEntryMerger {
+        private final EntryArchiveService entryArchiveService;
+        private final EntryWriter writer;
+        private Long currentHabitId;
+        private String currentHabitName;
+        private Deque<Integer> pendingYears = new ArrayDeque<>();
+        private Deque<HabitEntryResponse> pendingArchived = new ArrayDeque<>();
+        
+        ArchivedEntryMerger(EntryArchiveService entryArchiveService, EntryWriter writer) {
+            this.entryArchiveService = entryArchiveService;
+            this.writer = writer;
+        }
+        
+        void accept(long habitId, String habitName, boolean archived, HabitEntryResponse entry) {
+            if (currentHabitId == null || currentHabitId != habitId) {
+                flushArchived(null);
+                currentHabitId = habitId;
+                currentHabitName = habitName;
+                pendingYears = archived ? new ArrayDeque<>(entryArchiveService.findArchiveYears(habitId)) : new ArrayDeque<>();
+            }
+            if (entry != null) {
+                flushArchived(entry.getEntryDate());
+                write(habitId, habitName, entry);
+            }
+        }
+        
+        void finish() {
+            flushArchived(null);
+        }
+        
+        // Writes pending archived entries dated before the given date, or all of them when it is null
+        private void flushArchived(LocalDate before) {
+            while (true) {
+                if (pendingArchived.isEmpty()) {
+                    if (pendingYears.isEmpty() || (before != null && !LocalDate.of(pendingYears.peekFirst(), 1, 1).isBefore(before))) {
+                        return;
+                    }
+                    pendingArchived = new ArrayDeque<>(entryArchiveService.decodeYear(currentHabitId, pendingYears.pollFirst()));
+                } else if (before == null || pendingArchived.peekFirst().getEntryDate().isBefore(before)) {
+                    write(currentHabitId, currentHabitName, pendingArchived.pollFirst());
+                } else {
+                    return;
+                }
+            }
+        }
+        
+        private void write(long habitId, String habitName, HabitEntryResponse entry) {
+            try {
+                writer.write(habitId, habitName, entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,27 +1,33 @@
 package com.habittracker.service;
 
+import com.habittracker.dto.CursorPage;
 import com.habittracker.dto.HabitEntryRequest;
 import com.habittracker.dto.HabitEntryResponse;
 import com.habittracker.entity.Habit;
 import com.habittracker.entity.HabitEntry;
-import com.habittracker.entity.User;
 import com.habittracker.exception.BadRequestException;
-import com.habittracker.exception.ResourceNotFoundException;
+import com.habittracker.event.HabitDataChangedEvent;
+import com.habittracker.event.LiveUpdateEvent;
 import com.habittracker.repository.HabitEntryRepository;
 import com.habittracker.repository.HabitRepository;
-import com.habittracker.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class HabitEntryService {
     
+    // Bounds for paging without a date range, within what every supported database stores in a DATE column
+    private static final LocalDate EARLIEST_ENTRY_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST_ENTRY_DATE = LocalDate.of(9999, 12, 31);
+    
     @Autowired
     private HabitEntryRepository habitEntryRepository;
     
@@ -29,15 +35,27 @@ public class HabitEntryService {
     private HabitRepository habitRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private OwnershipResolver ownershipResolver;
+    
+    @Autowired
+    private StatsRollupService statsRollupService;
+    
+    @Autowired
+    private StreakService streakService;
+    
+    @Autowired
+    private CompletionCalendarService completionCalendarService;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public HabitEntryResponse createHabitEntry(Long habitId, HabitEntryRequest request, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
+        entryArchiveService.restoreForWrite(habit, request.getEntryDate());
         
         // Check if entry already exists for this date and handle targetCount
         Optional<HabitEntry> existingEntry = habitEntryRepository.findByHabitAndEntryDate(habit, request.getEntryDate());
@@ -50,6 +68,8 @@ public class HabitEntryService {
                 throw new BadRequestException("Target count for this date has already been reached. Use update instead.");
             } else {
                 // Update existing entry instead of creating new one
+                boolean wasCompleted = Boolean.TRUE.equals(existing.getIsCompleted());
+                statsRollupService.removeEntry(userId, habitId, existing);
                 int newCompletionCount = currentCompletionCount + (request.getCompletionCount() != null ? request.getCompletionCount() : 1);
                 existing.setCompletionCount(Math.min(newCompletionCount, targetCount));
                 existing.setIsCompleted(existing.getCompletionCount() >= targetCount);
@@ -58,66 +78,88 @@ public class HabitEntryService {
                 }
                 
                 HabitEntry updatedEntry = habitEntryRepository.save(existing);
-                updateHabitStreak(habit);
+                statsRollupService.addEntry(userId, habitId, updatedEntry);
+                updateHabitStreak(habit, updatedEntry.getEntryDate(), wasCompleted,
+                        updatedEntry.getEntryDate(), Boolean.TRUE.equals(updatedEntry.getIsCompleted()));
+                eventPublisher.publishEvent(new HabitDataChangedEvent(userId, habitId));
+                publishEntryChange(userId, LiveUpdateEvent.Type.ENTRY_UPSERTED, habit, updatedEntry);
                 return mapToResponse(updatedEntry);
             }
         }
         
         HabitEntry habitEntry = new HabitEntry();
         habitEntry.setHabit(habit);
+        habitEntry.setUserId(userId);
         habitEntry.setEntryDate(request.getEntryDate());
         habitEntry.setCompletionCount(request.getCompletionCount());
         habitEntry.setIsCompleted(request.getIsCompleted());
         habitEntry.setNotes(request.getNotes());
         
         HabitEntry savedEntry = habitEntryRepository.save(habitEntry);
+        statsRollupService.addEntry(userId, habitId, savedEntry);
         
         // Update habit streak
-        updateHabitStreak(habit);
+        updateHabitStreak(habit, null, false, savedEntry.getEntryDate(), Boolean.TRUE.equals(savedEntry.getIsCompleted()));
+        eventPublisher.publishEvent(new HabitDataChangedEvent(userId, habitId));
+        publishEntryChange(userId, LiveUpdateEvent.Type.ENTRY_UPSERTED, habit, savedEntry);
         
         return mapToResponse(savedEntry);
     }
     
+    @Transactional(readOnly = true)
     public List<HabitEntryResponse> getHabitEntries(Long habitId, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
         
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
+        return entryArchiveService.mergeArchived(habit, habitEntryRepository.findEntryResponsesByHabitId(habitId),
+                EARLIEST_ENTRY_DATE, LATEST_ENTRY_DATE);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<List<HabitEntryResponse>> getHabitEntriesPage(Long habitId, LocalDate startDate, LocalDate endDate,
+                                                                    Integer limit, String cursor, Long userId) {
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
+        
+        LocalDate from = startDate != null ? startDate : EARLIEST_ENTRY_DATE;
+        LocalDate to = endDate != null ? endDate : LATEST_ENTRY_DATE;
+        int pageSize = PageCursor.resolveLimit(limit);
+        // One extra row tells whether another page follows
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        
+        List<HabitEntryResponse> entries;
+        PageCursor position = cursor != null ? PageCursor.decode(cursor) : null;
+        if (position == null) {
+            entries = habitEntryRepository.findEntriesPage(habitId, from, to, pageable);
+        } else {
+            entries = habitEntryRepository.findEntriesPageAfter(habitId, from, to, position.getSortKeyAsDate(), position.getId(), pageable);
+        }
+        entries = entryArchiveService.mergeArchivedPage(habit, entries, from, to, position, pageSize + 1);
         
-        List<HabitEntry> entries = habitEntryRepository.findByHabitOrderByEntryDateDesc(habit);
-        return entries.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            HabitEntryResponse last = entries.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.getEntryDate(), last.getId());
+        }
+        return new CursorPage<>(entries, nextCursor);
     }
     
+    @Transactional(readOnly = true)
     public List<HabitEntryResponse> getHabitEntriesByDateRange(Long habitId, LocalDate startDate, LocalDate endDate, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
         
-        List<HabitEntry> entries = habitEntryRepository.findEntriesByHabitAndDateRange(habit, startDate, endDate);
-        return entries.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return entryArchiveService.mergeArchived(habit,
+                habitEntryRepository.findEntryResponsesByHabitIdAndDateRange(habitId, startDate, endDate), startDate, endDate);
     }
     
     @Transactional
     public HabitEntryResponse updateHabitEntry(Long habitId, Long entryId, HabitEntryRequest request, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        HabitEntry habitEntry = ownershipResolver.requireEntry(habitId, entryId, userId);
+        Habit habit = habitEntry.getHabit();
+        entryArchiveService.restoreForWrite(habit, request.getEntryDate());
         
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
-        
-        HabitEntry habitEntry = habitEntryRepository.findById(entryId)
-                .orElseThrow(() -> new ResourceNotFoundException("HabitEntry", "id", entryId));
-        
-        if (!habitEntry.getHabit().getId().equals(habitId)) {
-            throw new BadRequestException("Habit entry does not belong to this habit");
-        }
+        LocalDate previousDate = habitEntry.getEntryDate();
+        boolean wasCompleted = Boolean.TRUE.equals(habitEntry.getIsCompleted());
+        statsRollupService.removeEntry(userId, habitId, habitEntry);
         
         habitEntry.setEntryDate(request.getEntryDate());
         habitEntry.setCompletionCount(request.getCompletionCount());
@@ -125,94 +167,38 @@ public class HabitEntryService {
         habitEntry.setNotes(request.getNotes());
         
         HabitEntry updatedEntry = habitEntryRepository.save(habitEntry);
+        statsRollupService.addEntry(userId, habitId, updatedEntry);
         
         // Update habit streak
-        updateHabitStreak(habit);
+        updateHabitStreak(habit, previousDate, wasCompleted, updatedEntry.getEntryDate(), Boolean.TRUE.equals(updatedEntry.getIsCompleted()));
+        eventPublisher.publishEvent(new HabitDataChangedEvent(userId, habitId));
+        publishEntryChange(userId, LiveUpdateEvent.Type.ENTRY_UPSERTED, habit, updatedEntry);
         
         return mapToResponse(updatedEntry);
     }
     
     @Transactional
     public void deleteHabitEntry(Long habitId, Long entryId, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
-        
-        HabitEntry habitEntry = habitEntryRepository.findById(entryId)
-                .orElseThrow(() -> new ResourceNotFoundException("HabitEntry", "id", entryId));
-        
-        if (!habitEntry.getHabit().getId().equals(habitId)) {
-            throw new BadRequestException("Habit entry does not belong to this habit");
-        }
+        HabitEntry habitEntry = ownershipResolver.requireEntry(habitId, entryId, userId);
+        Habit habit = habitEntry.getHabit();
         
+        statsRollupService.removeEntry(userId, habitId, habitEntry);
         habitEntryRepository.delete(habitEntry);
         
         // Update habit streak
-        updateHabitStreak(habit);
+        updateHabitStreak(habit, habitEntry.getEntryDate(), Boolean.TRUE.equals(habitEntry.getIsCompleted()), null, false);
+        eventPublisher.publishEvent(new HabitDataChangedEvent(userId, habitId));
+        publishEntryChange(userId, LiveUpdateEvent.Type.ENTRY_DELETED, habit, habitEntry);
     }
     
-    private void updateHabitStreak(Habit habit) {
-        // Calculate current streak
-        int currentStreak = calculateCurrentStreak(habit);
-        habit.setStreakCount(currentStreak);
-        
-        // Update best streak if current is higher
-        if (currentStreak > habit.getBestStreak()) {
-            habit.setBestStreak(currentStreak);
-        }
-        
+    private void updateHabitStreak(Habit habit, LocalDate previousDate, boolean wasCompleted, LocalDate currentDate, boolean isCompleted) {
+        completionCalendarService.recordChange(habit.getId(), previousDate, wasCompleted, currentDate, isCompleted);
+        streakService.onEntryChanged(habit, previousDate, wasCompleted, currentDate, isCompleted);
         habitRepository.save(habit);
     }
     
-    private int calculateCurrentStreak(Habit habit) {
-        List<HabitEntry> entries = habitEntryRepository.findByHabitOrderByEntryDateDesc(habit);
-        
-        if (entries.isEmpty()) {
-            return 0;
-        }
-        
-        int streak = 0;
-        LocalDate currentDate = LocalDate.now();
-        
-        // Allow streak to start from yesterday if today hasn't been completed yet
-        boolean foundRecentEntry = false;
-        LocalDate checkDate = currentDate;
-        
-        for (HabitEntry entry : entries) {
-            if (entry.getEntryDate().equals(checkDate) && entry.getIsCompleted()) {
-                streak++;
-                foundRecentEntry = true;
-                checkDate = checkDate.minusDays(1);
-            } else if (entry.getEntryDate().equals(checkDate)) {
-                // Found entry for this date but not completed - streak breaks
-                if (foundRecentEntry || checkDate.equals(currentDate)) {
-                    break;
-                }
-                checkDate = checkDate.minusDays(1);
-            } else if (entry.getEntryDate().isBefore(checkDate)) {
-                // Missing entry for expected date - check if it's a gap
-                while (checkDate.isAfter(entry.getEntryDate())) {
-                    checkDate = checkDate.minusDays(1);
-                }
-                
-                if (entry.getEntryDate().equals(checkDate) && entry.getIsCompleted()) {
-                    if (foundRecentEntry) {
-                        // There's a gap, streak is broken
-                        break;
-                    }
-                    streak++;
-                    foundRecentEntry = true;
-                    checkDate = checkDate.minusDays(1);
-                } else {
-                    // Entry not completed or doesn't match expected date
-                    break;
-                }
-            }
-        }
-        
-        return streak;
+    private void publishEntryChange(Long userId, LiveUpdateEvent.Type type, Habit habit, HabitEntry entry) {
+        eventPublisher.publishEvent(LiveUpdateEvent.forEntry(userId, type, habit, entry.getId(), entry.getEntryDate()));
     }
     
     private HabitEntryResponse mapToResponse(HabitEntry habitEntry) {
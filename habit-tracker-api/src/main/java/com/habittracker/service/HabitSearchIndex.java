@@ -0,0 +1,283 @@
+package com.habittracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.config.ReplicaReads;
+import com.habittracker.dto.HabitResponse;
+import com.habittracker.event.HabitDetailsChangedEvent;
+import com.habittracker.repository.HabitRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+// In-memory trigram index over the names and descriptions of each user's active habits, behind habit search.
+// A user's index is built with one query on their first search, then kept current from HabitDetailsChangedEvent
+// after each commit. Indexes of users who stop searching are dropped after app.search.idle-ttl.
+// An index outlives replication lag, so it is always built from the primary.
+@Component
+public class HabitSearchIndex implements MeterBinder {
+    
+    private static final int GRAM = 3;
+    
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    // Match quality, best first; a query matching nowhere is not a result
+    private static final int NAME_EQUALS = 0;
+    private static final int NAME_PREFIX = 1;
+    private static final int NAME_WORD_PREFIX = 2;
+    private static final int NAME_CONTAINS = 3;
+    private static final int DESCRIPTION_WORD_PREFIX = 4;
+    private static final int DESCRIPTION_CONTAINS = 5;
+    private static final int NO_MATCH = -1;
+    
+    @Value("${app.search.max-users:10000}")
+    private long maxUsers;
+    
+    @Value("${app.search.idle-ttl:30m}")
+    private Duration idleTtl;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private Cache<Long, UserIndex> indexes;
+    
+    private TransactionTemplate primaryRead;
+    
+    // Bumped by every change, so an index built from a snapshot that a change may have missed is not kept
+    private final AtomicLong changes = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .recordStats()
+                .build();
+        
+        primaryRead = new TransactionTemplate(transactionManager);
+        primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        primaryRead.setReadOnly(true);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, indexes, "habit.search");
+    }
+    
+    // Ids of the user's active habits matching the query case- and accent-insensitively, best match first:
+    // the whole name, a name prefix, the start of a word in the name, anywhere in the name, then the same in the description
+    public List<Long> search(Long userId, String query) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index == null) {
+            // Built outside the cache lock so a slow load never blocks other users
+            long changesBefore = changes.get();
+            index = new UserIndex();
+            for (HabitResponse habit : loadActiveHabits(userId)) {
+                index.put(habit.getId(), habit.getName(), habit.getDescription());
+            }
+            if (changes.get() == changesBefore) {
+                UserIndex existing = indexes.asMap().putIfAbsent(userId, index);
+                index = existing != null ? existing : index;
+            }
+        }
+        return index.search(normalize(query));
+    }
+    
+    // A search routed to the replica already holds a replica connection, the build takes a primary one beside it
+    private List<HabitResponse> loadActiveHabits(Long userId) {
+        if (!ReplicaReads.isReplicaRead()) {
+            return habitRepository.findActiveHabitResponsesByUserId(userId);
+        }
+        return ReplicaReads.onPrimary(() -> primaryRead.execute(status -> habitRepository.findActiveHabitResponsesByUserId(userId)));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHabitDetailsChanged(HabitDetailsChangedEvent event) {
+        changes.incrementAndGet();
+        UserIndex index = indexes.getIfPresent(event.getUserId());
+        if (index == null) {
+            return;
+        }
+        
+        if (event.isActive()) {
+            index.put(event.getHabitId(), event.getName(), event.getDescription());
+        } else {
+            index.remove(event.getHabitId());
+        }
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+    
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+    
+    static int rank(String name, String description, String query) {
+        if (name.equals(query)) {
+            return NAME_EQUALS;
+        }
+        if (name.startsWith(query)) {
+            return NAME_PREFIX;
+        }
+        if (containsWordPrefix(name, query)) {
+            return NAME_WORD_PREFIX;
+        }
+        if (name.contains(query)) {
+            return NAME_CONTAINS;
+        }
+        if (containsWordPrefix(description, query)) {
+            return DESCRIPTION_WORD_PREFIX;
+        }
+        if (description.contains(query)) {
+            return DESCRIPTION_CONTAINS;
+        }
+        return NO_MATCH;
+    }
+    
+    private static boolean containsWordPrefix(String text, String query) {
+        for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static class Document {
+        private final Long habitId;
+        private final String name;
+        private final String description;
+        private final Set<String> grams;
+        
+        Document(Long habitId, String name, String description) {
+            this.habitId = habitId;
+            this.name = normalize(name);
+            this.description = normalize(description);
+            this.grams = trigrams(this.name);
+            this.grams.addAll(trigrams(this.description));
+        }
+    }
+    
+    private static class Hit {
+        private final Document document;
+        private final int rank;
+        
+        Hit(Document document, int rank) {
+            this.document = document;
+            this.rank = rank;
+        }
+    }
+    
+    private static class UserIndex {
+        private static final Comparator<Hit> BEST_FIRST = Comparator.<Hit>comparingInt(hit -> hit.rank)
+                .thenComparingInt(hit -> hit.document.name.length())
+                .thenComparing(hit -> hit.document.name)
+                .thenComparing(hit -> hit.document.habitId);
+        
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        
+        synchronized void put(Long habitId, String name, String description) {
+            remove(habitId);
+            Document document = new Document(habitId, name, description);
+            documents.put(habitId, document);
+            for (String gram : document.grams) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(habitId);
+            }
+        }
+        
+        synchronized void remove(Long habitId) {
+            Document document = documents.remove(habitId);
+            if (document == null) {
+                return;
+            }
+            for (String gram : document.grams) {
+                Set<Long> ids = postings.get(gram);
+                ids.remove(habitId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        
+        synchronized List<Long> search(String query) {
+            List<Hit> hits = new ArrayList<>();
+            for (Long habitId : candidates(query)) {
+                Document document = documents.get(habitId);
+                int rank = query.isEmpty() ? NAME_CONTAINS : rank(document.name, document.description, query);
+                if (rank != NO_MATCH) {
+                    hits.add(new Hit(document, rank));
+                }
+            }
+            hits.sort(BEST_FIRST);
+            
+            List<Long> habitIds = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                habitIds.add(hit.document.habitId);
+            }
+            return habitIds;
+        }
+        
+        // Habits holding every trigram of the query, smallest posting list first. Queries too short to have a
+        // trigram are checked against every habit of the user. Either way rank() confirms the actual match.
+        private Collection<Long> candidates(String query) {
+            Set<String> grams = trigrams(query);
+            if (grams.isEmpty()) {
+                return documents.keySet();
+            }
+            
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            
+            Set<Long> candidates = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(lists.get(i));
+            }
+            return candidates;
+        }
+    }
+}
@@ -1,18 +1,26 @@
 package com.habittracker.service;
 
+import com.habittracker.dto.CursorPage;
 import com.habittracker.dto.HabitRequest;
 import com.habittracker.dto.HabitResponse;
 import com.habittracker.entity.Habit;
-import com.habittracker.entity.User;
+import com.habittracker.event.HabitDataChangedEvent;
+import com.habittracker.event.HabitDetailsChangedEvent;
+import com.habittracker.event.LiveUpdateEvent;
 import com.habittracker.exception.BadRequestException;
-import com.habittracker.exception.ResourceNotFoundException;
 import com.habittracker.repository.HabitRepository;
 import com.habittracker.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,13 +32,21 @@ public class HabitService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private OwnershipResolver ownershipResolver;
+    
+    @Autowired
+    private HabitSearchIndex habitSearchIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Transactional
     public HabitResponse createHabit(HabitRequest habitRequest, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        ownershipResolver.requireUser(userId);
         
         // Check if habit name is unique for this user
-        if (habitRepository.existsByNameAndUser(habitRequest.getName(), user)) {
+        if (habitRepository.existsByNameAndUserId(habitRequest.getName(), userId)) {
             throw new BadRequestException("Habit name must be unique. You already have a habit with this name.");
         }
         
@@ -44,43 +60,61 @@ public class HabitService {
         habit.setDescription(habitRequest.getDescription());
         habit.setFrequencyType(habitRequest.getFrequencyType());
         habit.setTargetCount(habitRequest.getTargetCount() != null && habitRequest.getTargetCount() > 0 ? habitRequest.getTargetCount() : 1);
-        habit.setUser(user);
+        // Reference only, the user row is never loaded
+        habit.setUser(userRepository.getReferenceById(userId));
         
         Habit savedHabit = habitRepository.save(habit);
+        eventPublisher.publishEvent(new HabitDataChangedEvent(userId, savedHabit.getId()));
+        eventPublisher.publishEvent(detailsChanged(userId, savedHabit));
+        eventPublisher.publishEvent(LiveUpdateEvent.forHabit(userId, LiveUpdateEvent.Type.HABIT_CREATED, savedHabit));
         return mapToResponse(savedHabit);
     }
     
+    @Transactional(readOnly = true)
     public List<HabitResponse> getUserHabits(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        ownershipResolver.requireUser(userId);
         
-        List<Habit> habits = habitRepository.findActiveHabitsByUser(user);
-        return habits.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return habitRepository.findActiveHabitResponsesByUserId(userId);
     }
     
-    public HabitResponse getHabitById(Long habitId, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+    @Transactional(readOnly = true)
+    public CursorPage<List<HabitResponse>> getUserHabitsPage(Long userId, Integer limit, String cursor) {
+        ownershipResolver.requireUser(userId);
         
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
+        int pageSize = PageCursor.resolveLimit(limit);
+        // One extra row tells whether another page follows
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        
+        List<HabitResponse> habits;
+        if (cursor == null) {
+            habits = habitRepository.findActiveHabitsPage(userId, pageable);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            habits = habitRepository.findActiveHabitsPageAfter(userId, position.getSortKeyAsDateTime(), position.getId(), pageable);
+        }
+        
+        String nextCursor = null;
+        if (habits.size() > pageSize) {
+            habits = habits.subList(0, pageSize);
+            HabitResponse last = habits.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(habits, nextCursor);
+    }
+    
+    public HabitResponse getHabitById(Long habitId, Long userId) {
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
         
         return mapToResponse(habit);
     }
     
     @Transactional
     public HabitResponse updateHabit(Long habitId, HabitRequest habitRequest, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
         
         // Check if habit name is unique for this user (if name is being changed)
         if (!habit.getName().equals(habitRequest.getName()) && 
-            habitRepository.existsByNameAndUser(habitRequest.getName(), user)) {
+            habitRepository.existsByNameAndUserId(habitRequest.getName(), userId)) {
             throw new BadRequestException("Habit name must be unique. You already have a habit with this name.");
         }
         
@@ -95,29 +129,43 @@ public class HabitService {
         habit.setTargetCount(habitRequest.getTargetCount() != null && habitRequest.getTargetCount() > 0 ? habitRequest.getTargetCount() : 1);
         
         Habit updatedHabit = habitRepository.save(habit);
+        eventPublisher.publishEvent(new HabitDataChangedEvent(userId, habitId));
+        eventPublisher.publishEvent(detailsChanged(userId, updatedHabit));
+        eventPublisher.publishEvent(LiveUpdateEvent.forHabit(userId, LiveUpdateEvent.Type.HABIT_UPDATED, updatedHabit));
         return mapToResponse(updatedHabit);
     }
     
     @Transactional
     public void deleteHabit(Long habitId, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        
-        Habit habit = habitRepository.findByIdAndUser(habitId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Habit", "id", habitId));
+        Habit habit = ownershipResolver.requireHabit(habitId, userId);
         
         habit.setIsActive(false);
         habitRepository.save(habit);
+        eventPublisher.publishEvent(new HabitDataChangedEvent(userId, habitId));
+        eventPublisher.publishEvent(detailsChanged(userId, habit));
+        eventPublisher.publishEvent(LiveUpdateEvent.forHabit(userId, LiveUpdateEvent.Type.HABIT_ARCHIVED, habit));
     }
     
+    @Transactional(readOnly = true)
     public List<HabitResponse> searchHabits(String name, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        ownershipResolver.requireUser(userId);
         
-        List<Habit> habits = habitRepository.findActiveHabitsByUserAndNameContaining(user, name);
-        return habits.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        // The index ranks, the current rows (streaks change with every check-in) come from one primary-key lookup
+        List<Long> habitIds = habitSearchIndex.search(userId, name);
+        if (habitIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, HabitResponse> habitsById = habitRepository.findActiveHabitResponsesByUserIdAndIdIn(userId, habitIds).stream()
+                .collect(Collectors.toMap(HabitResponse::getId, Function.identity()));
+        return habitIds.stream()
+                .map(habitsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+    
+    private static HabitDetailsChangedEvent detailsChanged(Long userId, Habit habit) {
+        return new HabitDetailsChangedEvent(userId, habit.getId(), habit.getName(), habit.getDescription(),
+                Boolean.TRUE.equals(habit.getIsActive()));
     }
     
     private HabitResponse mapToResponse(Habit habit) {
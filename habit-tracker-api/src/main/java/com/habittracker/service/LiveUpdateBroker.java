@@ -0,0 +1,345 @@
+package com.habittracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.event.LiveUpdateEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fans committed habit changes out to each user's open SSE connections.
+// Publishing never blocks on a client: events go into a bounded per-connection buffer that a sender pool drains,
+// and a connection whose buffer is full is dropped. It reconnects with Last-Event-ID and catches up from the replay log.
+// A servlet write blocks while the client is not reading, so one client's drain must not hold up another's: the pool
+// grows past sender-threads instead of queueing drains, and a connection whose write outlasts send-timeout is dropped.
+// Its thread is only parked until the container's write timeout fails the write.
+@Component
+public class LiveUpdateBroker implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateBroker.class);
+    
+    private static final OutboundEvent HEARTBEAT = new OutboundEvent(0, null, null);
+    
+    private static final OutboundEvent RESYNC = new OutboundEvent(0, "resync", "{}");
+    
+    @Value("${app.live.buffer-size:64}")
+    private int bufferSize;
+    
+    @Value("${app.live.replay-size:100}")
+    private int replaySize;
+    
+    @Value("${app.live.replay-ttl:5m}")
+    private Duration replayTtl;
+    
+    @Value("${app.live.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+    
+    @Value("${app.live.timeout:30m}")
+    private Duration timeout;
+    
+    @Value("${app.live.sender-threads:2}")
+    private int senderThreads;
+    
+    @Value("${app.live.send-timeout:5s}")
+    private Duration sendTimeout;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Seeded from the clock so ids handed out before a restart are never reused for different events
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    
+    private Cache<Long, ReplayLog> replayLogs;
+    
+    private ThreadPoolExecutor sender;
+    
+    private ScheduledExecutorService heartbeats;
+    
+    @PostConstruct
+    public void init() {
+        replayLogs = Caffeine.newBuilder()
+                .expireAfterAccess(replayTtl)
+                .build();
+        
+        // At most one drain per connection is in flight, so the pool never outgrows the open connections
+        sender = new ThreadPoolExecutor(senderThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("live-updates-"));
+        sender.allowCoreThreadTimeOut(true);
+        
+        heartbeats = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("live-heartbeat-"));
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long stallCheckMillis = Math.max(sendTimeout.toMillis() / 2, 10);
+        heartbeats.scheduleAtFixedRate(this::dropStalledConsumers, stallCheckMillis, stallCheckMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(sender, "live-updates", Tags.empty()).bindTo(registry);
+        Gauge.builder("app.live.connections", subscriptions, connections -> connections.values().stream().mapToInt(Set::size).sum())
+                .register(registry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::close));
+        sender.shutdownNow();
+    }
+    
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(userId, emitter);
+        emitter.onCompletion(subscription::unregister);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.unregister());
+        
+        ReplayLog replayLog = replayLogs.get(userId, id -> new ReplayLog());
+        // Registered and replayed under the log's lock so no event is missed or delivered twice in between
+        synchronized (replayLog) {
+            subscriptions.compute(userId, (id, userSubscriptions) -> {
+                Set<Subscription> updated = userSubscriptions != null ? userSubscriptions : ConcurrentHashMap.newKeySet();
+                updated.add(subscription);
+                return updated;
+            });
+            if (lastEventId != null) {
+                List<OutboundEvent> missed = replayLog.eventsAfter(parseEventId(lastEventId));
+                if (missed == null || missed.size() > bufferSize) {
+                    // Some events are no longer retained or would not fit the buffer, the client refetches instead
+                    subscription.offer(RESYNC);
+                } else {
+                    missed.forEach(subscription::offer);
+                }
+            }
+        }
+        return emitter;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLiveUpdate(LiveUpdateEvent event) {
+        OutboundEvent outbound;
+        try {
+            outbound = new OutboundEvent(sequence.incrementAndGet(), "change", objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize live update for user {}", event.getUserId(), e);
+            return;
+        }
+        
+        ReplayLog replayLog = replayLogs.get(event.getUserId(), id -> new ReplayLog());
+        synchronized (replayLog) {
+            replayLog.append(outbound, replaySize);
+            Set<Subscription> userSubscriptions = subscriptions.get(event.getUserId());
+            if (userSubscriptions != null) {
+                userSubscriptions.forEach(subscription -> subscription.offer(outbound));
+            }
+        }
+    }
+    
+    private void sendHeartbeats() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> subscription.offer(HEARTBEAT)));
+    }
+    
+    private void dropStalledConsumers() {
+        long now = System.nanoTime();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> {
+            if (subscription.isStalled(now)) {
+                log.debug("Dropping stalled live update consumer for user {}", subscription.userId);
+                subscription.dropStalled();
+            }
+        }));
+    }
+    
+    private static long parseEventId(String lastEventId) {
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            // Never matches a retained event, so the client is told to resync
+            return -1;
+        }
+    }
+    
+    private class Subscription {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<OutboundEvent> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean stalled;
+        // System.nanoTime() when the write in progress started, 0 while none is
+        private volatile long sendStartedAt;
+        
+        Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+        
+        void offer(OutboundEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                log.debug("Dropping slow live update consumer for user {}", userId);
+                closeAsync();
+                return;
+            }
+            scheduleDrain();
+        }
+        
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                unregister();
+            }
+        }
+        
+        private void drain() {
+            boolean failed = false;
+            try {
+                OutboundEvent event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(event.toSse());
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                failed = true;
+                unregister();
+            } finally {
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+            if (stalled && !failed) {
+                // Dropped while this write was blocked; completing before it returned would have waited on it too
+                emitter.complete();
+            } else if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+        
+        boolean isStalled(long now) {
+            long started = sendStartedAt;
+            return started != 0 && now - started > sendTimeout.toNanos();
+        }
+        
+        void dropStalled() {
+            stalled = true;
+            unregister();
+        }
+        
+        // The sender may be blocked writing to this very client, so completion must not run on the publishing thread
+        private void closeAsync() {
+            unregister();
+            try {
+                sender.execute(emitter::complete);
+            } catch (RejectedExecutionException e) {
+                emitter.complete();
+            }
+        }
+        
+        void close() {
+            unregister();
+            emitter.complete();
+        }
+        
+        void unregister() {
+            closed = true;
+            subscriptions.computeIfPresent(userId, (id, userSubscriptions) -> {
+                userSubscriptions.remove(this);
+                return userSubscriptions.isEmpty() ? null : userSubscriptions;
+            });
+        }
+    }
+    
+    private static class OutboundEvent {
+        private final long id;
+        private final String name;
+        private final String data;
+        
+        OutboundEvent(long id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+        
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            return id > 0 ? builder.id(Long.toString(id)) : builder;
+        }
+    }
+    
+    private static class ReplayLog {
+        private final Deque<OutboundEvent> events = new ArrayDeque<>();
+        private long lastDroppedId;
+        
+        void append(OutboundEvent event, int maxSize) {
+            events.addLast(event);
+            if (events.size() > maxSize) {
+                lastDroppedId = events.removeFirst().id;
+            }
+        }
+        
+        // Events after lastEventId, or null when the log cannot show that nothing in between was lost
+        List<OutboundEvent> eventsAfter(long lastEventId) {
+            boolean continuous = lastEventId > 0 && (lastEventId == lastDroppedId
+                    || events.stream().anyMatch(event -> event.id == lastEventId));
+            if (!continuous) {
+                return null;
+            }
+            
+            List<OutboundEvent> missed = new ArrayList<>();
+            for (OutboundEvent event : events) {
+                if (event.id > lastEventId) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.exception.BadRequestException;
+import com.habittracker.exception.ResourceNotFoundException;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// Proves user -> habit -> entry ownership with one query on the success path (none for a habit in the second-level cache).
+// Only when that query finds nothing are the individual lookups run, to report the same error as before.
+@Component
+public class OwnershipResolver {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    public void requireUser(Long userId) {
+        // A primary-key load, so the second-level cache answers it
+        if (userRepository.findById(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+    }
+    
+    public Habit requireHabit(Long habitId, Long userId) {
+        // Loaded by primary key from the second-level cache when present; the owner check reads the user
+        // proxy's id and does not load the user
+        return habitRepository.findById(habitId)
+                .filter(habit -> habit.getUser().getId().equals(userId))
+                .orElseThrow(() -> {
+                    requireUser(userId);
+                    return new ResourceNotFoundException("Habit", "id", habitId);
+                });
+    }
+    
+    // The returned entry has its habit fetched. An archived entry is restored to habit_entries first.
+    public HabitEntry requireEntry(Long habitId, Long entryId, Long userId) {
+        return habitEntryRepository.findOwnedEntry(entryId, habitId, userId)
+                .or(() -> {
+                    Habit habit = requireHabit(habitId, userId);
+                    return entryArchiveService.restoreEntry(habit, entryId)
+                            ? habitEntryRepository.findOwnedEntry(entryId, habitId, userId)
+                            : Optional.empty();
+                })
+                .orElseThrow(() -> {
+                    if (!habitEntryRepository.existsById(entryId)) {
+                        return new ResourceNotFoundException("HabitEntry", "id", entryId);
+                    }
+                    return new BadRequestException("Habit entry does not belong to this habit");
+                });
+    }
+}
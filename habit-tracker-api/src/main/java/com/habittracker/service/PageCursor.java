@@ -0,0 +1,73 @@
+package com.habittracker.service;
+
+import com.habittracker.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Opaque keyset position: the sort key and id of the last row of a page, base64url encoded
+public class PageCursor {
+    
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 100;
+    
+    private final String sortKey;
+    private final Long id;
+    
+    private PageCursor(String sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+    
+    public static String encode(Object sortKey, Long id) {
+        String raw = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new PageCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+    
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+    
+    public LocalDate getSortKeyAsDate() {
+        try {
+            return LocalDate.parse(sortKey);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+    
+    public LocalDateTime getSortKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+    
+    public String getSortKey() {
+        return sortKey;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+}
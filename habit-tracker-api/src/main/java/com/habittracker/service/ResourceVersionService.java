@@ -0,0 +1,55 @@
+package com.habittracker.service;
+
+import com.habittracker.event.HabitDataChangedEvent;
+import com.habittracker.repository.UserChangeCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+
+// One counter per user, bumped in the same transaction as every habit or entry write.
+// Anything derived from a user's habits is unchanged for as long as the counter is.
+// The version is read like the data it tags, from the replica when the request's reads go there.
+@Service
+public class ResourceVersionService {
+    
+    private static final String INSERT_COUNTER_SQL = "INSERT INTO user_change_counters (user_id, version) VALUES (?, 1)";
+    
+    @Autowired
+    private UserChangeCounterRepository userChangeCounterRepository;
+    
+    @Autowired
+    private UniqueRowInserter uniqueRowInserter;
+    
+    // The user's first write creates the counter. When two first writes race, the losing insert must not roll back
+    // its transaction from here, so it falls back to bumping the counter the other one created.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onHabitDataChanged(HabitDataChangedEvent event) {
+        Long userId = event.getUserId();
+        if (userChangeCounterRepository.incrementVersion(userId) > 0 || uniqueRowInserter.insertIfAbsent(INSERT_COUNTER_SQL, userId)) {
+            return;
+        }
+        if (userChangeCounterRepository.incrementVersion(userId) == 0) {
+            throw new IllegalStateException("Change counter of user " + userId + " was neither inserted nor updated");
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public long getVersion(Long userId) {
+        return userChangeCounterRepository.findVersionByUserId(userId).orElse(0L);
+    }
+    
+    @Transactional(readOnly = true)
+    public String getUserEtag(Long userId) {
+        return "\"" + userId + "-" + getVersion(userId) + "\"";
+    }
+    
+    // Analytics also depend on today's date, so the ETag changes at midnight even without writes
+    @Transactional(readOnly = true)
+    public String getAnalyticsEtag(Long userId) {
+        return "\"" + userId + "-" + getVersion(userId) + "-" + LocalDate.now() + "\"";
+    }
+}
@@ -0,0 +1,179 @@
+package com.habittracker.service;
+
+import com.habittracker.dto.DailyCompletionCount;
+import com.habittracker.dto.HabitCompletionCount;
+import com.habittracker.dto.HabitEntryResponse;
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.entity.HabitEntryArchive;
+import com.habittracker.entity.HabitStats;
+import com.habittracker.entity.UserDailyStats;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitStatsRepository;
+import com.habittracker.repository.UserDailyStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class StatsRollupService {
+    
+    private static final String INSERT_DAILY_STATS_SQL =
+            "INSERT INTO user_daily_stats (user_id, stat_date, completed_count, completion_sum) VALUES (?, ?, ?, ?)";
+    
+    private static final String INSERT_HABIT_STATS_SQL =
+            "INSERT INTO habit_stats (habit_id, user_id, completed_count, completion_sum) VALUES (?, ?, ?, ?)";
+    
+    @Autowired
+    private UserDailyStatsRepository userDailyStatsRepository;
+    
+    @Autowired
+    private HabitStatsRepository habitStatsRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    @Autowired
+    private UniqueRowInserter uniqueRowInserter;
+    
+    @Transactional
+    public void addEntry(Long userId, Long habitId, HabitEntry entry) {
+        applyEntry(userId, habitId, entry, 1);
+    }
+    
+    @Transactional
+    public void removeEntry(Long userId, Long habitId, HabitEntry entry) {
+        applyEntry(userId, habitId, entry, -1);
+    }
+    
+    // Nets many entry changes per day and per habit first, so each rollup row is written once
+    @Transactional
+    public void applyChanges(Long userId, List<HabitEntry> removedEntries, List<HabitEntry> addedEntries) {
+        Map<LocalDate, long[]> dailyDeltas = new HashMap<>();
+        Map<Long, long[]> habitDeltas = new HashMap<>();
+        accumulate(removedEntries, -1, dailyDeltas, habitDeltas);
+        accumulate(addedEntries, 1, dailyDeltas, habitDeltas);
+        
+        for (Map.Entry<LocalDate, long[]> day : dailyDeltas.entrySet()) {
+            long[] delta = day.getValue();
+            if (delta[0] == 0 && delta[1] == 0) {
+                continue;
+            }
+            incrementDailyStats(userId, day.getKey(), delta[0], delta[1]);
+        }
+        
+        for (Map.Entry<Long, long[]> habit : habitDeltas.entrySet()) {
+            long[] delta = habit.getValue();
+            if (delta[0] == 0 && delta[1] == 0) {
+                continue;
+            }
+            incrementHabitStats(userId, habit.getKey(), delta[0], delta[1]);
+        }
+    }
+    
+    public List<UserDailyStats> getUserDailyStats(Long userId, LocalDate startDate, LocalDate endDate) {
+        return userDailyStatsRepository.findByUserIdAndStatDateBetween(userId, startDate, endDate);
+    }
+    
+    public List<HabitStats> getHabitStats(Long userId) {
+        return habitStatsRepository.findByUserId(userId);
+    }
+    
+    @Transactional
+    public void rebuildUser(Long userId) {
+        userDailyStatsRepository.deleteByUserId(userId);
+        habitStatsRepository.deleteByUserId(userId);
+        
+        Map<LocalDate, long[]> dailyTotals = new HashMap<>();
+        Map<Long, long[]> habitTotals = new HashMap<>();
+        for (DailyCompletionCount day : habitEntryRepository.countAllCompletedEntriesByUserGroupedByDate(userId)) {
+            add(dailyTotals, day.getDate(), day.getCompletedCount(), day.getCompletionSum());
+        }
+        for (HabitCompletionCount habit : habitEntryRepository.countAllCompletedEntriesByUserGroupedByHabit(userId)) {
+            add(habitTotals, habit.getHabitId(), habit.getCompletedCount(), habit.getCompletionSum());
+        }
+        
+        // Entries compacted into yearly archives still count
+        for (List<HabitEntryArchive> archives : entryArchiveService.findArchivesByHabitOfUser(userId).values()) {
+            for (HabitEntryArchive archive : archives) {
+                add(habitTotals, archive.getHabitId(), archive.getCompletedCount(), archive.getCompletionSum());
+                for (HabitEntryResponse entry : EntryArchiveCodec.decode(archive)) {
+                    if (Boolean.TRUE.equals(entry.getIsCompleted())) {
+                        add(dailyTotals, entry.getEntryDate(), 1, entry.getCompletionCount());
+                    }
+                }
+            }
+        }
+        
+        dailyTotals.forEach((date, totals) -> userDailyStatsRepository.save(new UserDailyStats(userId, date, totals[0], totals[1])));
+        habitTotals.forEach((habitId, totals) -> habitStatsRepository.save(new HabitStats(habitId, userId, totals[0], totals[1])));
+    }
+    
+    private static <K> void add(Map<K, long[]> totals, K key, Number completedCount, Number completionSum) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0] += completedCount.longValue();
+        total[1] += completionSum != null ? completionSum.longValue() : 0;
+    }
+    
+    private void accumulate(List<HabitEntry> entries, int sign, Map<LocalDate, long[]> dailyDeltas, Map<Long, long[]> habitDeltas) {
+        for (HabitEntry entry : entries) {
+            if (!Boolean.TRUE.equals(entry.getIsCompleted())) {
+                continue;
+            }
+            long completionDelta = (long) sign * (entry.getCompletionCount() != null ? entry.getCompletionCount() : 0);
+            
+            long[] daily = dailyDeltas.computeIfAbsent(entry.getEntryDate(), date -> new long[2]);
+            daily[0] += sign;
+            daily[1] += completionDelta;
+            
+            long[] habit = habitDeltas.computeIfAbsent(entry.getHabit().getId(), id -> new long[2]);
+            habit[0] += sign;
+            habit[1] += completionDelta;
+        }
+    }
+    
+    private void applyEntry(Long userId, Long habitId, HabitEntry entry, int sign) {
+        // Only completed entries contribute to the rollups
+        if (!Boolean.TRUE.equals(entry.getIsCompleted())) {
+            return;
+        }
+        
+        long completedDelta = sign;
+        long completionDelta = (long) sign * (entry.getCompletionCount() != null ? entry.getCompletionCount() : 0);
+        
+        incrementDailyStats(userId, entry.getEntryDate(), completedDelta, completionDelta);
+        incrementHabitStats(userId, habitId, completedDelta, completionDelta);
+    }
+    
+    // The first completion of a day creates its row. Two of the user's check-ins can both find it missing,
+    // the one whose insert loses then adds to the row the other created.
+    private void incrementDailyStats(Long userId, LocalDate date, long completedDelta, long completionDelta) {
+        if (userDailyStatsRepository.incrementStats(userId, date, completedDelta, completionDelta) > 0
+                || uniqueRowInserter.insertIfAbsent(INSERT_DAILY_STATS_SQL, userId, Date.valueOf(date), completedDelta, completionDelta)) {
+            return;
+        }
+        requireUpdated(userDailyStatsRepository.incrementStats(userId, date, completedDelta, completionDelta), "user_daily_stats");
+    }
+    
+    private void incrementHabitStats(Long userId, Long habitId, long completedDelta, long completionDelta) {
+        if (habitStatsRepository.incrementStats(habitId, completedDelta, completionDelta) > 0
+                || uniqueRowInserter.insertIfAbsent(INSERT_HABIT_STATS_SQL, habitId, userId, completedDelta, completionDelta)) {
+            return;
+        }
+        requireUpdated(habitStatsRepository.incrementStats(habitId, completedDelta, completionDelta), "habit_stats");
+    }
+    
+    private static void requireUpdated(int updatedRows, String table) {
+        if (updatedRows == 0) {
+            throw new IllegalStateException("Row of " + table + " was neither inserted nor updated");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.Habit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+@Service
+public class StreakService {
+    
+    @Autowired
+    private CompletionCalendarService completionCalendarService;
+    
+    // The tracked run is the run of consecutive completed days containing the latest completed day up to today.
+    // Callers pass the completion state before and after the write, once the completion calendar reflects it.
+    public void onEntryChanged(Habit habit, LocalDate previousDate, boolean wasCompleted, LocalDate currentDate, boolean isCompleted) {
+        LocalDate today = LocalDate.now();
+        
+        boolean sameDate = previousDate != null && previousDate.equals(currentDate);
+        boolean removed = wasCompleted && previousDate != null && !(sameDate && isCompleted);
+        boolean added = isCompleted && currentDate != null && !(sameDate && wasCompleted);
+        
+        if (habit.getStreakEndDate() == null && habit.getStreakCount() != null && habit.getStreakCount() > 0) {
+            // Streak written before run dates were tracked
+            rescan(habit, today);
+        } else if (removed && added) {
+            rescan(habit, today);
+        } else if (added) {
+            applyCompletion(habit, currentDate, today);
+        } else if (removed) {
+            applyRemoval(habit, previousDate, today);
+        }
+        
+        publishStreak(habit, today);
+    }
+    
+    // Full recomputation from the completion calendar, for writes that touch many days at once
+    public void recalculate(Habit habit) {
+        LocalDate today = LocalDate.now();
+        rescan(habit, today);
+        publishStreak(habit, today);
+    }
+    
+    public void rescan(Habit habit, LocalDate today) {
+        LocalDate latest = completionCalendarService.findLatestCompleted(habit.getId(), today);
+        if (latest == null) {
+            habit.setStreakStartDate(null);
+            habit.setStreakEndDate(null);
+        } else {
+            habit.setStreakEndDate(latest);
+            habit.setStreakStartDate(findRunStart(habit, latest));
+        }
+    }
+    
+    private void applyCompletion(Habit habit, LocalDate date, LocalDate today) {
+        LocalDate start = habit.getStreakStartDate();
+        LocalDate end = habit.getStreakEndDate();
+        
+        if (date.isAfter(today)) {
+            // Future entries do not count until their day arrives, the first completion after that picks them up
+            return;
+        }
+        
+        if (end == null || date.isAfter(end)) {
+            // Days after the run that were entered ahead of time may have arrived since, so the end comes from
+            // the calendar. Only a plain next-day check-in extends the run without looking for its start.
+            LocalDate latest = completionCalendarService.findLatestCompleted(habit.getId(), today);
+            boolean nextDay = end != null && date.equals(end.plusDays(1)) && latest.equals(date);
+            habit.setStreakEndDate(latest);
+            if (!nextDay) {
+                habit.setStreakStartDate(findRunStart(habit, latest));
+            }
+        } else if (date.equals(start.minusDays(1))) {
+            // Backdated entry joins the run to whatever was completed before it
+            habit.setStreakStartDate(findRunStart(habit, date));
+        } else {
+            // Backdated entry further back may join two older runs into a longer one than the best so far
+            int runLength = completionCalendarService.findRunLength(habit.getId(), date);
+            if (runLength > (habit.getBestStreak() != null ? habit.getBestStreak() : 0)) {
+                habit.setBestStreak(runLength);
+            }
+        }
+    }
+    
+    private void applyRemoval(Habit habit, LocalDate date, LocalDate today) {
+        LocalDate start = habit.getStreakStartDate();
+        LocalDate end = habit.getStreakEndDate();
+        
+        if (end == null || date.isAfter(end) || date.isBefore(start)) {
+            return;
+        }
+        
+        if (start.equals(end)) {
+            // Run is gone, fall back to the previous completed day
+            LocalDate previous = completionCalendarService.findLatestCompleted(habit.getId(), date.minusDays(1));
+            habit.setStreakEndDate(previous);
+            habit.setStreakStartDate(previous != null ? findRunStart(habit, previous) : null);
+        } else if (date.equals(end)) {
+            habit.setStreakEndDate(end.minusDays(1));
+        } else {
+            // Removing the first or an inner day leaves the later part as the tracked run
+            habit.setStreakStartDate(date.plusDays(1));
+        }
+    }
+    
+    private LocalDate findRunStart(Habit habit, LocalDate completedDate) {
+        return completionCalendarService.findRunStart(habit.getId(), completedDate);
+    }
+    
+    private void publishStreak(Habit habit, LocalDate today) {
+        LocalDate start = habit.getStreakStartDate();
+        LocalDate end = habit.getStreakEndDate();
+        
+        int runLength = end != null ? (int) ChronoUnit.DAYS.between(start, end) + 1 : 0;
+        
+        // A run only counts as the current streak while it reaches today or yesterday
+        int currentStreak = end != null && !end.isBefore(today.minusDays(1)) ? runLength : 0;
+        habit.setStreakCount(currentStreak);
+        
+        if (runLength > (habit.getBestStreak() != null ? habit.getBestStreak() : 0)) {
+            habit.setBestStreak(runLength);
+        }
+    }
+}
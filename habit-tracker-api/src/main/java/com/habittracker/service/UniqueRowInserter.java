@@ -0,0 +1,43 @@
+package com.habittracker.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+// Inserts a row that concurrent transactions may be inserting too, for counters and bitmaps created on first use.
+// The insert runs under a savepoint on the caller's transactional connection, so losing the race on the unique key
+// rolls back only the insert: the caller then updates the winner's row instead of failing the whole request.
+// JDBC savepoints rather than a NESTED transaction, which JpaTransactionManager does not support with Hibernate.
+@Component
+public class UniqueRowInserter {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // False when the row's unique key was already taken, by a committed row or one committed while the insert waited
+    public boolean insertIfAbsent(String sql, Object... args) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < args.length; i++) {
+                    statement.setObject(i + 1, args[i]);
+                }
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                if (jdbcTemplate.getExceptionTranslator().translate("insertIfAbsent", sql, e) instanceof DuplicateKeyException) {
+                    return false;
+                }
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+            return true;
+        });
+    }
+}
@@ -0,0 +1,14 @@
+-- Owner of the entry's habit, copied onto each entry so per-user entry queries need no join to habits.
+-- Habits never change owner, so the copy is written once on insert.
+ALTER TABLE habit_entries ADD COLUMN user_id BIGINT;
+UPDATE habit_entries SET user_id = (SELECT h.user_id FROM habits h WHERE h.id = habit_entries.habit_id);
+ALTER TABLE habit_entries ALTER COLUMN user_id SET NOT NULL;
+
+-- Per-user entry reads by day or date range; the daily completion counts and sums are answered from the index alone
+CREATE INDEX idx_habit_entries_user_date ON habit_entries (user_id, entry_date, is_completed, completion_count);
+
+-- A user's active habits newest first, including the (created_at, id) keyset pages, read in index order without a sort
+CREATE INDEX idx_habits_user_active_created ON habits (user_id, is_active, created_at, id);
+
+-- Rollup rebuilds read and delete a user's habit_stats rows
+CREATE INDEX idx_habit_stats_user ON habit_stats (user_id);
@@ -0,0 +1,98 @@
+-- Schema as previously generated by Hibernate from the entity mappings
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    is_active BIT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE habits (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    frequency_type ENUM('DAILY', 'WEEKLY', 'MONTHLY'),
+    target_count INTEGER,
+    is_active BIT,
+    streak_count INTEGER,
+    best_streak INTEGER,
+    streak_start_date DATE,
+    streak_end_date DATE,
+    archived_through_year INTEGER,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_habits_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE habit_entries (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    habit_id BIGINT NOT NULL,
+    entry_date DATE NOT NULL,
+    completion_count INTEGER,
+    is_completed BIT,
+    notes VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_habit_entries_habit_date UNIQUE (habit_id, entry_date),
+    CONSTRAINT fk_habit_entries_habit FOREIGN KEY (habit_id) REFERENCES habits (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE habit_entry_archives (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    habit_id BIGINT NOT NULL,
+    archive_year INTEGER NOT NULL,
+    entry_count INTEGER NOT NULL,
+    completed_count INTEGER NOT NULL,
+    completion_sum BIGINT NOT NULL,
+    logged_days VARBINARY(46) NOT NULL,
+    completed_days VARBINARY(46) NOT NULL,
+    completion_counts VARBINARY(2048) NOT NULL,
+    entry_ids VARBINARY(4096) NOT NULL,
+    notes MEDIUMTEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_habit_entry_archives_habit_year UNIQUE (habit_id, archive_year)
+) ENGINE=InnoDB;
+
+CREATE TABLE habit_completion_words (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    habit_id BIGINT NOT NULL,
+    word_index BIGINT NOT NULL,
+    bits BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_habit_completion_words_habit_word UNIQUE (habit_id, word_index)
+) ENGINE=InnoDB;
+
+CREATE TABLE habit_stats (
+    habit_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    completed_count BIGINT NOT NULL,
+    completion_sum BIGINT NOT NULL,
+    PRIMARY KEY (habit_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE user_daily_stats (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    completed_count BIGINT NOT NULL,
+    completion_sum BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_daily_stats_user_date UNIQUE (user_id, stat_date)
+) ENGINE=InnoDB;
+
+CREATE TABLE user_change_counters (
+    user_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB;
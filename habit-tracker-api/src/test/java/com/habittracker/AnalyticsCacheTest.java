@@ -0,0 +1,58 @@
+package com.habittracker;
+
+import com.habittracker.dto.AnalyticsResponse;
+import com.habittracker.event.HabitDataChangedEvent;
+import com.habittracker.service.AnalyticsCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A result computed while the user's data changed must not outlive the change in the cache.
+@SpringBootTest
+class AnalyticsCacheTest {
+    
+    // Far from the ids other tests create, so their invalidations do not touch these users
+    private static final AtomicLong USER_IDS = new AtomicLong(1_000_000);
+    
+    @Autowired
+    private AnalyticsCache analyticsCache;
+    
+    @Test
+    void resultIsServedFromTheCacheUntilTheUserChangesData() {
+        Long userId = USER_IDS.incrementAndGet();
+        AtomicInteger loads = new AtomicInteger();
+        
+        analyticsCache.getUserAnalytics(userId, () -> analytics(loads.incrementAndGet()));
+        assertThat(analyticsCache.getUserAnalytics(userId, () -> analytics(loads.incrementAndGet())).getTotalHabits()).isEqualTo(1);
+        
+        analyticsCache.onHabitDataChanged(new HabitDataChangedEvent(userId, null));
+        assertThat(analyticsCache.getUserAnalytics(userId, () -> analytics(loads.incrementAndGet())).getTotalHabits()).isEqualTo(2);
+    }
+    
+    @Test
+    void changeCommittedDuringALoadIsNotHiddenByItsResult() {
+        Long userId = USER_IDS.incrementAndGet();
+        Long habitId = 7L;
+        
+        // The change commits after the loader read its data but before it returns
+        AnalyticsResponse stale = analyticsCache.getHabitAnalytics(userId, habitId, () -> {
+            analyticsCache.onHabitDataChanged(new HabitDataChangedEvent(userId, habitId));
+            return analytics(1);
+        });
+        assertThat(stale.getTotalHabits()).isEqualTo(1);
+        
+        assertThat(analyticsCache.getHabitAnalytics(userId, habitId, () -> analytics(2)).getTotalHabits()).isEqualTo(2);
+        assertThat(analyticsCache.getHabitAnalytics(userId, habitId, () -> analytics(3)).getTotalHabits()).isEqualTo(2);
+    }
+    
+    private static AnalyticsResponse analytics(long totalHabits) {
+        AnalyticsResponse response = new AnalyticsResponse();
+        response.setTotalHabits(totalHabits);
+        return response;
+    }
+}
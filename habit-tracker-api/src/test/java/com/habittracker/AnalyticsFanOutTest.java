@@ -0,0 +1,73 @@
+package com.habittracker;
+
+import com.habittracker.service.AnalyticsFanOut;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A section that misses its deadline keeps its connection until its query returns, so it must keep its
+// permit too: until then further sections run on the caller instead of taking another connection.
+@SpringBootTest(properties = {
+        "app.analytics.parallel.enabled=true",
+        "app.analytics.parallel.max-connections=1",
+        "app.analytics.parallel.timeout=200ms"
+})
+class AnalyticsFanOutTest {
+    
+    @Autowired
+    private AnalyticsFanOut analyticsFanOut;
+    
+    @Test
+    void lateSectionHoldsItsPermitUntilItsQueryReturns() throws Exception {
+        CountDownLatch queryReturns = new CountDownLatch(1);
+        CountDownLatch queryFinished = new CountDownLatch(1);
+        List<String> unavailableSections = new ArrayList<>();
+        
+        // Like a JDBC call, the slow query does not stop when the cancelled future interrupts it
+        Future<String> slow = analyticsFanOut.submit(() -> {
+            awaitUninterruptibly(queryReturns);
+            queryFinished.countDown();
+            return "late";
+        });
+        String result = analyticsFanOut.await(slow, analyticsFanOut.newDeadline(), "fallback", "slow", unavailableSections);
+        
+        assertThat(result).isEqualTo("fallback");
+        assertThat(unavailableSections).containsExactly("slow");
+        assertThat(runningThread()).isEqualTo(Thread.currentThread().getName());
+        
+        queryReturns.countDown();
+        assertThat(queryFinished.await(10, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (runningThread().equals(Thread.currentThread().getName()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(runningThread()).startsWith("analytics-");
+    }
+    
+    private String runningThread() throws Exception {
+        return analyticsFanOut.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+    }
+    
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.habittracker;
+
+import com.habittracker.service.CompletionCalendar;
+import com.habittracker.service.CompletionCalendarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Completion words as stored: days that land in the same new word concurrently, and runs read back
+// across word and year boundaries.
+@SpringBootTest
+class CompletionCalendarServiceTest {
+    
+    // Completion words have no foreign key, so habit ids no other test uses keep these rows apart
+    private static final AtomicLong HABIT_IDS = new AtomicLong(4_000_000);
+    
+    private static final LocalDate WORD_START = LocalDate.ofEpochDay(300L * CompletionCalendar.DAYS_PER_WORD);
+    
+    @Autowired
+    private CompletionCalendarService completionCalendarService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void concurrentFirstDaysOfAWordAreBothRecorded() throws Exception {
+        Long habitId = HABIT_IDS.incrementAndGet();
+        LocalDate firstDay = WORD_START.plusDays(3);
+        LocalDate secondDay = WORD_START.plusDays(4);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        
+        Future<?> first = executor.submit(() -> transaction.executeWithoutResult(status -> {
+            completionCalendarService.recordChange(habitId, null, false, firstDay, true);
+            firstInserted.countDown();
+            await(commitFirst);
+        }));
+        assertThat(firstInserted.await(10, TimeUnit.SECONDS)).isTrue();
+        Future<?> second = executor.submit(() -> transaction.executeWithoutResult(status ->
+                completionCalendarService.recordChange(habitId, null, false, secondDay, true)));
+        Thread.sleep(300);
+        commitFirst.countDown();
+        
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        
+        CompletionCalendar calendar = completionCalendarService.load(habitId, WORD_START, WORD_START);
+        assertThat(calendar.isCompleted(firstDay)).isTrue();
+        assertThat(calendar.isCompleted(secondDay)).isTrue();
+    }
+    
+    @Test
+    void runsAreFoundAcrossWordAndYearBoundaries() {
+        Long habitId = HABIT_IDS.incrementAndGet();
+        LocalDate yearEnd = LocalDate.of(2023, 12, 31);
+        for (LocalDate day = yearEnd.minusDays(2); !day.isAfter(yearEnd.plusDays(2)); day = day.plusDays(1)) {
+            completionCalendarService.recordChange(habitId, null, false, day, true);
+        }
+        for (LocalDate day = WORD_START.minusDays(2); !day.isAfter(WORD_START.plusDays(1)); day = day.plusDays(1)) {
+            completionCalendarService.recordChange(habitId, null, false, day, true);
+        }
+        
+        assertThat(completionCalendarService.findRunStart(habitId, yearEnd.plusDays(2))).isEqualTo(yearEnd.minusDays(2));
+        assertThat(completionCalendarService.findRunLength(habitId, yearEnd)).isEqualTo(5);
+        assertThat(completionCalendarService.findLatestCompleted(habitId, LocalDate.of(2024, 2, 1))).isEqualTo(yearEnd.plusDays(2));
+        
+        assertThat(completionCalendarService.findRunStart(habitId, WORD_START.plusDays(1))).isEqualTo(WORD_START.minusDays(2));
+        assertThat(completionCalendarService.findRunLength(habitId, WORD_START.minusDays(1))).isEqualTo(4);
+        
+        // Clearing the last day of a word splits the run at the boundary
+        completionCalendarService.recordChange(habitId, WORD_START.minusDays(1), true, null, false);
+        assertThat(completionCalendarService.findRunStart(habitId, WORD_START.plusDays(1))).isEqualTo(WORD_START);
+        assertThat(completionCalendarService.findLatestCompleted(habitId, WORD_START.minusDays(1))).isEqualTo(WORD_START.minusDays(2));
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
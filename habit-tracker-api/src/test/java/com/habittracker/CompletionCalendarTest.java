@@ -0,0 +1,90 @@
+package com.habittracker;
+
+import com.habittracker.entity.HabitCompletionWord;
+import com.habittracker.service.CompletionCalendar;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Bit arithmetic of the completion calendar, where runs and counts have to carry across 64-day words and years.
+class CompletionCalendarTest {
+    
+    // First day of a word, so the day before it is the last bit of the previous word
+    private static final LocalDate WORD_START = LocalDate.ofEpochDay(300L * CompletionCalendar.DAYS_PER_WORD);
+    
+    @Test
+    void wordsSplitAtMultiplesOfSixtyFourDays() {
+        assertThat(CompletionCalendar.wordIndexOf(WORD_START)).isEqualTo(300);
+        assertThat(CompletionCalendar.bitIndexOf(WORD_START)).isZero();
+        assertThat(CompletionCalendar.wordIndexOf(WORD_START.minusDays(1))).isEqualTo(299);
+        assertThat(CompletionCalendar.bitIndexOf(WORD_START.minusDays(1))).isEqualTo(63);
+        
+        // Days before the epoch fall into negative words, still counted upwards within the word
+        assertThat(CompletionCalendar.wordIndexOf(LocalDate.ofEpochDay(-1))).isEqualTo(-1);
+        assertThat(CompletionCalendar.bitIndexOf(LocalDate.ofEpochDay(-1))).isEqualTo(63);
+    }
+    
+    @Test
+    void runsAndCountsCarryAcrossAWordBoundary() {
+        LocalDate first = WORD_START.minusDays(3);
+        LocalDate last = WORD_START.plusDays(2);
+        CompletionCalendar calendar = calendarOf(first.minusDays(70), last.plusDays(70), daysBetween(first, last));
+        
+        assertThat(calendar.runLengthEndingAt(last)).isEqualTo(6);
+        assertThat(calendar.runLengthEndingAt(WORD_START.minusDays(1))).isEqualTo(3);
+        assertThat(calendar.runLengthStartingAt(first)).isEqualTo(6);
+        assertThat(calendar.runLengthStartingAt(WORD_START)).isEqualTo(3);
+        assertThat(calendar.countCompleted(first.minusDays(10), WORD_START)).isEqualTo(4);
+        assertThat(calendar.latestCompletedOnOrBefore(last.plusDays(30))).isEqualTo(last);
+        assertThat(calendar.select(4)).isEqualTo(WORD_START);
+    }
+    
+    @Test
+    void fullWordsContinueARun() {
+        LocalDate first = WORD_START.minusDays(5);
+        LocalDate last = WORD_START.plusDays(CompletionCalendar.DAYS_PER_WORD + 1);
+        CompletionCalendar calendar = calendarOf(first.minusDays(1), last.plusDays(1), daysBetween(first, last));
+        
+        int length = CompletionCalendar.DAYS_PER_WORD + 7;
+        assertThat(calendar.runLengthEndingAt(last)).isEqualTo(length);
+        assertThat(calendar.runLengthStartingAt(first)).isEqualTo(length);
+    }
+    
+    @Test
+    void runsAndCountsCarryAcrossTheYearRollover() {
+        LocalDate first = LocalDate.of(2023, 12, 29);
+        LocalDate last = LocalDate.of(2024, 1, 2);
+        CompletionCalendar calendar = calendarOf(LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 31), daysBetween(first, last));
+        
+        assertThat(calendar.runLengthEndingAt(last)).isEqualTo(5);
+        assertThat(calendar.runLengthStartingAt(LocalDate.of(2023, 12, 31))).isEqualTo(3);
+        assertThat(calendar.countCompleted(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))).isEqualTo(2);
+        assertThat(calendar.latestCompletedOnOrBefore(LocalDate.of(2024, 1, 1))).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(calendar.rank(LocalDate.of(2023, 12, 31))).isEqualTo(3);
+        assertThat(calendar.select(4)).isEqualTo(LocalDate.of(2024, 1, 1));
+    }
+    
+    private static List<LocalDate> daysBetween(LocalDate first, LocalDate last) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+    
+    private static CompletionCalendar calendarOf(LocalDate from, LocalDate to, List<LocalDate> completed) {
+        Map<Long, Long> bits = new HashMap<>();
+        for (LocalDate day : completed) {
+            bits.merge(CompletionCalendar.wordIndexOf(day), 1L << CompletionCalendar.bitIndexOf(day), (a, b) -> a | b);
+        }
+        List<HabitCompletionWord> words = new ArrayList<>();
+        bits.forEach((index, word) -> words.add(new HabitCompletionWord(1L, index, word)));
+        return CompletionCalendar.of(CompletionCalendar.wordIndexOf(from), CompletionCalendar.wordIndexOf(to), words);
+    }
+}
@@ -0,0 +1,169 @@
+package com.habittracker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Keyset pages of habits and entries: rows sharing a sort key are neither repeated nor skipped, the last page
+// carries no cursor, and a cursor the client made up or changed is a bad request.
+@SpringBootTest
+@AutoConfigureMockMvc
+class CursorPagingTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private String token;
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        JsonNode registration = TestUsers.register(mockMvc, TestUsers.uniqueName("pager"));
+        token = TestUsers.bearer(registration);
+        userId = registration.get("id").asLong();
+    }
+    
+    @Test
+    void habitPagesWalkThroughCreatedAtTies() throws Exception {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            created.add(createHabit("Habit " + i));
+        }
+        // Four habits created in the same instant, between an older and a newer one
+        LocalDateTime tie = LocalDateTime.of(2024, 3, 1, 12, 0);
+        jdbcTemplate.update("UPDATE habits SET created_at = ? WHERE user_id = ?", Timestamp.valueOf(tie), userId);
+        jdbcTemplate.update("UPDATE habits SET created_at = ? WHERE id = ?", Timestamp.valueOf(tie.minusDays(1)), created.get(0));
+        jdbcTemplate.update("UPDATE habits SET created_at = ? WHERE id = ?", Timestamp.valueOf(tie.plusDays(1)), created.get(5));
+        
+        List<Long> expected = new ArrayList<>();
+        expected.add(created.get(5));
+        created.subList(1, 5).stream().sorted(Comparator.reverseOrder()).forEach(expected::add);
+        expected.add(created.get(0));
+        
+        // The last page is exactly full and still ends the listing
+        assertThat(walk("/api/habits", 2)).containsExactlyElementsOf(expected);
+        assertThat(walk("/api/habits", 4)).containsExactlyElementsOf(expected);
+        assertThat(walk("/api/habits", 100)).containsExactlyElementsOf(expected);
+    }
+    
+    @Test
+    void entryPagesEndWithoutACursor() throws Exception {
+        Long habitId = createHabit("Paged entries");
+        List<Long> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            newestFirst.add(0, createEntry(habitId, LocalDate.of(2024, 1, 1).plusDays(i)));
+        }
+        
+        assertThat(walk("/api/habits/" + habitId + "/entries", 2)).containsExactlyElementsOf(newestFirst);
+        assertThat(walk("/api/habits/" + habitId + "/entries", 5)).containsExactlyElementsOf(newestFirst);
+        
+        JsonNode empty = page("/api/habits/" + habitId + "/entries?startDate=2025-01-01&limit=2");
+        assertThat(empty.get("data")).isEmpty();
+        assertThat(empty.has("nextCursor")).isFalse();
+    }
+    
+    @Test
+    void invalidOrTamperedCursorIsABadRequest() throws Exception {
+        createHabit("Older habit");
+        Long habitId = createHabit("Cursor target");
+        createEntry(habitId, LocalDate.of(2024, 1, 1));
+        createEntry(habitId, LocalDate.of(2024, 1, 2));
+        String habitCursor = page("/api/habits?limit=1").get("nextCursor").asText();
+        String entryCursor = page("/api/habits/" + habitId + "/entries?limit=1").get("nextCursor").asText();
+        
+        List<String> badCursors = List.of(
+                "not a cursor!",
+                encode("no separator"),
+                encode("2024-01-02|"),
+                encode("2024-01-02|12x"),
+                encode("yesterday|1"),
+                entryCursor.substring(0, entryCursor.length() - 2) + "!!");
+        for (String cursor : badCursors) {
+            assertBadRequest("/api/habits", cursor);
+            assertBadRequest("/api/habits/" + habitId + "/entries", cursor);
+        }
+        // A valid cursor from one listing does not fit the sort key of the other
+        assertBadRequest("/api/habits", entryCursor);
+        assertBadRequest("/api/habits/" + habitId + "/entries", habitCursor);
+        
+        mockMvc.perform(get("/api/habits").param("limit", "0").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private List<Long> walk(String path, int limit) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String url = path + "?limit=" + limit + (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = page(url);
+            assertThat(page.get("data").size()).isBetween(1, limit);
+            page.get("data").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.has("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null && pages < 20);
+        assertThat(cursor).isNull();
+        assertThat(pages).isEqualTo((ids.size() + limit - 1) / limit);
+        return ids;
+    }
+    
+    private JsonNode page(String url) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(url).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+    
+    private void assertBadRequest(String path, String cursor) throws Exception {
+        mockMvc.perform(get(path).param("cursor", cursor).header("Authorization", token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+    
+    private Long createHabit(String name) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/habits")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("data").get("id").asLong();
+    }
+    
+    private Long createEntry(Long habitId, LocalDate date) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/habits/" + habitId + "/entries")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"entryDate\":\"" + date + "\",\"completionCount\":1}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("data").get("id").asLong();
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package com.habittracker;
+
+import com.habittracker.entity.User;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// A token issued before the user was deactivated stops authenticating on the next request,
+// whether its principal was already cached or the principal cache is turned off.
+@SpringBootTest
+@AutoConfigureMockMvc
+class DeactivatedUserTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void deactivatedUserIsNoLongerAuthenticated() throws Exception {
+        assertDeactivationRevokesToken(mockMvc, userRepository, "deactivated");
+    }
+    
+    // Its own context, so it needs its own beans rather than the enclosing instance's
+    @Nested
+    @TestPropertySource(properties = "app.auth.principal-cache.enabled=false")
+    class WithoutPrincipalCache {
+        
+        @Autowired
+        private MockMvc mockMvc;
+        
+        @Autowired
+        private UserRepository userRepository;
+        
+        @Test
+        void deactivatedUserIsNoLongerAuthenticated() throws Exception {
+            assertDeactivationRevokesToken(mockMvc, userRepository, "deactivateduncached");
+        }
+    }
+    
+    private static void assertDeactivationRevokesToken(MockMvc mockMvc, UserRepository userRepository, String username) throws Exception {
+        String token = TestUsers.bearer(TestUsers.register(mockMvc, username));
+        
+        mockMvc.perform(get("/api/habits").header("Authorization", token))
+                .andExpect(status().isOk());
+        
+        User user = userRepository.findByUsername(username).orElseThrow();
+        user.setIsActive(false);
+        userRepository.save(user);
+        
+        mockMvc.perform(get("/api/habits").header("Authorization", token))
+                .andExpect(status().isForbidden());
+    }
+}
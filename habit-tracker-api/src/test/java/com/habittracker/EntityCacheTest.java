@@ -0,0 +1,100 @@
+package com.habittracker;
+
+import com.habittracker.dto.HabitRequest;
+import com.habittracker.dto.HabitResponse;
+import com.habittracker.entity.FrequencyType;
+import com.habittracker.entity.Habit;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.HabitService;
+import com.habittracker.support.SqlStatementCounter;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Repeated reads of a user's habits and habit list are answered from the second-level and query caches without SQL,
+// and a write through HabitService is visible to the next read.
+@SpringBootTest
+@Import(SqlStatementCounter.class)
+class EntityCacheTest {
+    
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private HabitService habitService;
+    
+    private Long userId;
+    private Long habitId;
+    
+    @BeforeEach
+    void setUp() {
+        userId = TestUsers.save(userRepository, "cache").getId();
+        habitId = habitService.createHabit(new HabitRequest("Read", null), userId).getId();
+        habitService.createHabit(new HabitRequest("Walk", null), userId);
+    }
+    
+    @Test
+    void ownedHabitLookupsAreServedFromTheCache() {
+        habitService.getHabitById(habitId, userId);
+        
+        sqlStatementCounter.reset();
+        assertThat(habitService.getHabitById(habitId, userId).getName()).isEqualTo("Read");
+        assertThat(sqlStatementCounter.count()).isZero();
+    }
+    
+    @Test
+    void activeHabitQueryIsCachedUntilHabitsChange() {
+        habitRepository.findActiveHabitsByUserId(userId);
+        
+        sqlStatementCounter.reset();
+        assertThat(names(habitRepository.findActiveHabitsByUserId(userId))).containsExactly("Walk", "Read");
+        assertThat(sqlStatementCounter.count()).isZero();
+        
+        HabitRequest rename = new HabitRequest("Read more", null);
+        rename.setFrequencyType(FrequencyType.DAILY);
+        habitService.updateHabit(habitId, rename, userId);
+        habitService.deleteHabit(habitId, userId);
+        
+        sqlStatementCounter.reset();
+        assertThat(names(habitRepository.findActiveHabitsByUserId(userId))).containsExactly("Walk");
+        assertThat(sqlStatementCounter.count()).isEqualTo(1);
+        assertThat(habitRepository.findById(habitId).orElseThrow().getName()).isEqualTo("Read more");
+    }
+    
+    @Test
+    void habitListIsCachedUntilHabitsChange() {
+        habitService.getUserHabits(userId);
+        
+        sqlStatementCounter.reset();
+        assertThat(responseNames(habitService.getUserHabits(userId))).containsExactly("Walk", "Read");
+        assertThat(sqlStatementCounter.count()).isZero();
+        
+        habitService.createHabit(new HabitRequest("Swim", null), userId);
+        
+        sqlStatementCounter.reset();
+        assertThat(responseNames(habitService.getUserHabits(userId))).containsExactly("Swim", "Walk", "Read");
+        assertThat(sqlStatementCounter.count()).isEqualTo(1);
+    }
+    
+    private static List<String> names(List<Habit> habits) {
+        return habits.stream().map(Habit::getName).toList();
+    }
+    
+    private static List<String> responseNames(List<HabitResponse> habits) {
+        return habits.stream().map(HabitResponse::getName).toList();
+    }
+}
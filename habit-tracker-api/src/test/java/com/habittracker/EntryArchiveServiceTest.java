@@ -0,0 +1,205 @@
+package com.habittracker;
+
+import com.habittracker.dto.CursorPage;
+import com.habittracker.dto.HabitEntryRequest;
+import com.habittracker.dto.HabitEntryResponse;
+import com.habittracker.dto.HabitRequest;
+import com.habittracker.entity.Habit;
+import com.habittracker.repository.HabitEntryArchiveRepository;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.EntryArchiveService;
+import com.habittracker.service.EntryTieringJob;
+import com.habittracker.service.ExportService;
+import com.habittracker.service.HabitEntryService;
+import com.habittracker.service.HabitService;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Moving entries between habit_entries and the yearly archives must keep every entry's id, count and notes,
+// and listings, pages and exports must read the same entries whichever tier each year is in.
+// Runs on its own database because the tiering job compacts every habit it finds.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:entry-archive-test")
+class EntryArchiveServiceTest {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private HabitEntryArchiveRepository habitEntryArchiveRepository;
+    
+    @Autowired
+    private HabitService habitService;
+    
+    @Autowired
+    private HabitEntryService habitEntryService;
+    
+    @Autowired
+    private EntryArchiveService entryArchiveService;
+    
+    @Autowired
+    private EntryTieringJob entryTieringJob;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    private Long userId;
+    private Long habitId;
+    
+    @BeforeEach
+    void setUp() {
+        userId = TestUsers.save(userRepository, "archive").getId();
+        habitId = habitService.createHabit(new HabitRequest("Archived habit", null), userId).getId();
+    }
+    
+    @Test
+    void compactedYearsRestoreWithTheirIdsCountsAndNotes() {
+        List<HabitEntryResponse> written = writeEvery(40, LocalDate.of(2015, 1, 3), LocalDate.of(2016, 12, 31));
+        
+        entryTieringJob.run();
+        
+        assertThat(habitEntryRepository.findEntryResponsesByHabitId(habitId)).isEmpty();
+        assertThat(habit().getArchivedThroughYear()).isEqualTo(2016);
+        assertSameEntries(habitEntryService.getHabitEntries(habitId, userId), written);
+        
+        assertThat(entryArchiveService.restoreYearsAfter(habitId, 2014)).isEqualTo(written.size());
+        
+        assertThat(habit().getArchivedThroughYear()).isNull();
+        assertThat(habitEntryArchiveRepository.findByHabitIdOrderByArchiveYear(habitId)).isEmpty();
+        assertSameEntries(habitEntryRepository.findEntryResponsesByHabitId(habitId), written);
+    }
+    
+    @Test
+    void writeToAnArchivedYearRestoresOnlyThatYear() {
+        List<HabitEntryResponse> written = writeEvery(50, LocalDate.of(2015, 1, 3), LocalDate.of(2016, 12, 31));
+        entryArchiveService.compactHabit(habitId, 2016);
+        
+        LocalDate newDay = LocalDate.of(2015, 6, 1);
+        HabitEntryResponse added = write(newDay, 2, "added later");
+        
+        assertThat(habitEntryArchiveRepository.findByHabitIdAndArchiveYear(habitId, 2015)).isEmpty();
+        assertThat(habitEntryArchiveRepository.findByHabitIdAndArchiveYear(habitId, 2016)).isPresent();
+        assertThat(habit().getArchivedThroughYear()).isEqualTo(2016);
+        assertThat(habitEntryRepository.findEntryResponsesByHabitId(habitId))
+                .allMatch(entry -> entry.getEntryDate().getYear() == 2015);
+        
+        List<HabitEntryResponse> expected = new ArrayList<>(written);
+        expected.add(added);
+        assertSameEntries(habitEntryService.getHabitEntries(habitId, userId), expected);
+    }
+    
+    @Test
+    void archivedEntryCanBeUpdatedAndDeleted() {
+        List<HabitEntryResponse> written = writeEvery(60, LocalDate.of(2015, 1, 3), LocalDate.of(2016, 12, 31));
+        entryArchiveService.compactHabit(habitId, 2016);
+        HabitEntryResponse toUpdate = written.get(1);
+        HabitEntryResponse toDelete = written.get(written.size() - 1);
+        
+        HabitEntryRequest update = new HabitEntryRequest(toUpdate.getEntryDate(), 5);
+        update.setIsCompleted(true);
+        update.setNotes("updated");
+        HabitEntryResponse updated = habitEntryService.updateHabitEntry(habitId, toUpdate.getId(), update, userId);
+        habitEntryService.deleteHabitEntry(habitId, toDelete.getId(), userId);
+        
+        assertThat(updated.getId()).isEqualTo(toUpdate.getId());
+        List<HabitEntryResponse> listed = habitEntryService.getHabitEntries(habitId, userId);
+        assertThat(listed).extracting(HabitEntryResponse::getId).doesNotContain(toDelete.getId());
+        assertThat(listed).filteredOn(entry -> entry.getId().equals(toUpdate.getId())).singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getCompletionCount()).isEqualTo(5);
+                    assertThat(entry.getNotes()).isEqualTo("updated");
+                });
+        assertThat(listed).hasSize(written.size() - 1);
+    }
+    
+    @Test
+    void pagesAndExportsInterleaveHotAndArchivedYears() throws Exception {
+        List<HabitEntryResponse> written = new ArrayList<>(writeEvery(45, LocalDate.of(2014, 1, 2), LocalDate.of(2017, 12, 31)));
+        written.add(write(LocalDate.now(), 1, null));
+        entryArchiveService.compactHabit(habitId, 2017);
+        // 2016 back in habit_entries between the archived 2014, 2015 and 2017
+        written.add(write(LocalDate.of(2016, 3, 3), 1, "restores 2016"));
+        assertThat(habitEntryArchiveRepository.findByHabitIdOrderByArchiveYear(habitId))
+                .extracting(archive -> archive.getArchiveYear()).containsExactly(2014, 2015, 2017);
+        
+        List<HabitEntryResponse> listed = habitEntryService.getHabitEntries(habitId, userId);
+        assertSameEntries(listed, written);
+        
+        List<HabitEntryResponse> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<List<HabitEntryResponse>> page = habitEntryService.getHabitEntriesPage(habitId, null, null, 4, cursor, userId);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(4);
+            paged.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 100);
+        assertThat(cursor).isNull();
+        assertThat(paged).extracting(HabitEntryResponse::getId)
+                .containsExactlyElementsOf(listed.stream().map(HabitEntryResponse::getId).toList());
+        
+        CursorPage<List<HabitEntryResponse>> ranged = habitEntryService.getHabitEntriesPage(habitId,
+                LocalDate.of(2015, 6, 1), LocalDate.of(2016, 6, 1), 100, null, userId);
+        assertThat(ranged.getNextCursor()).isNull();
+        assertThat(ranged.getItems()).extracting(HabitEntryResponse::getId).containsExactlyElementsOf(listed.stream()
+                .filter(entry -> !entry.getEntryDate().isBefore(LocalDate.of(2015, 6, 1)) && !entry.getEntryDate().isAfter(LocalDate.of(2016, 6, 1)))
+                .map(HabitEntryResponse::getId).toList());
+        
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.exportEntriesAsCsv(userId, csv);
+        List<Long> exportedIds = csv.toString(StandardCharsets.UTF_8).lines().skip(1)
+                .map(line -> Long.valueOf(line.split(",")[2]))
+                .toList();
+        List<Long> oldestFirst = new ArrayList<>(listed.stream().map(HabitEntryResponse::getId).toList());
+        Collections.reverse(oldestFirst);
+        assertThat(exportedIds).containsExactlyElementsOf(oldestFirst);
+    }
+    
+    private List<HabitEntryResponse> writeEvery(int days, LocalDate from, LocalDate to) {
+        List<HabitEntryResponse> written = new ArrayList<>();
+        int n = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(days), n++) {
+            written.add(write(date, n % 3 + 1, n % 2 == 0 ? "note " + n : null));
+        }
+        return written;
+    }
+    
+    private HabitEntryResponse write(LocalDate date, int count, String notes) {
+        HabitEntryRequest request = new HabitEntryRequest(date, count);
+        request.setIsCompleted(count > 1);
+        request.setNotes(notes);
+        return habitEntryService.createHabitEntry(habitId, request, userId);
+    }
+    
+    private Habit habit() {
+        return habitRepository.findById(habitId).orElseThrow();
+    }
+    
+    private static void assertSameEntries(List<HabitEntryResponse> actual, List<HabitEntryResponse> expected) {
+        assertThat(actual).usingRecursiveFieldByFieldElementComparatorIgnoringFields("createdAt", "updatedAt")
+                .containsExactlyInAnyOrderElementsOf(expected);
+        for (int i = 1; i < actual.size(); i++) {
+            assertThat(actual.get(i).getEntryDate()).isBefore(actual.get(i - 1).getEntryDate());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.habittracker;
+
+import com.habittracker.service.ExportService;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Exports beyond app.export.max-concurrent are turned away instead of queueing for a connection,
+// and a finished export, or one that never got to run, gives its slot back exactly once.
+@SpringBootTest(properties = "app.export.max-concurrent=1")
+@AutoConfigureMockMvc
+class ExportLimitTest {
+    
+    // While set, the MVC async executor turns every task away, so an export body never runs
+    private static volatile boolean rejectAsyncTasks;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Test
+    void exportIsRefusedWhileAllSlotsAreTaken() throws Exception {
+        String token = TestUsers.bearer(TestUsers.register(mockMvc, "exporter"));
+        
+        assertThat(exportService.tryStartExport()).isTrue();
+        try {
+            mockMvc.perform(get("/api/export/entries").header("Authorization", token))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            exportService.finishExport();
+        }
+        
+        MvcResult started = mockMvc.perform(get("/api/export/entries?format=csv").header("Authorization", token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        
+        assertThat(exportService.tryStartExport()).isTrue();
+        assertThat(exportService.tryStartExport()).isFalse();
+        exportService.finishExport();
+    }
+    
+    @Test
+    void slotIsGivenBackWhenTheExportNeverRuns() throws Exception {
+        String token = TestUsers.bearer(TestUsers.register(mockMvc, "rejected-exporter"));
+        
+        rejectAsyncTasks = true;
+        try {
+            MvcResult rejected = mockMvc.perform(get("/api/export/entries").header("Authorization", token))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // The rejection is dispatched before MockMvc starts waiting for a result, so end the request the way
+            // the container would after that dispatch
+            rejected.getRequest().getAsyncContext().complete();
+        } finally {
+            rejectAsyncTasks = false;
+        }
+        
+        assertThat(exportService.tryStartExport()).isTrue();
+        assertThat(exportService.tryStartExport()).isFalse();
+        exportService.finishExport();
+    }
+    
+    @TestConfiguration
+    static class RejectingAsyncSupport {
+        
+        @Bean
+        WebMvcConfigurer rejectingAsyncSupport() {
+            return new WebMvcConfigurer() {
+                @Override
+                public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                    configurer.setTaskExecutor(new RejectingExecutor());
+                }
+            };
+        }
+    }
+    
+    private static class RejectingExecutor extends SimpleAsyncTaskExecutor {
+        
+        RejectingExecutor() {
+            super("export-test-");
+        }
+        
+        @Override
+        public void execute(Runnable task) {
+            rejectIfAsked();
+            super.execute(task);
+        }
+        
+        @Override
+        public Future<?> submit(Runnable task) {
+            rejectIfAsked();
+            return super.submit(task);
+        }
+        
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            rejectIfAsked();
+            return super.submit(task);
+        }
+        
+        private static void rejectIfAsked() {
+            if (rejectAsyncTasks) {
+                throw new TaskRejectedException("Rejected by test");
+            }
+        }
+    }
+}
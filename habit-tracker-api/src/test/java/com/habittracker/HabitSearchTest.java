@@ -0,0 +1,81 @@
+package com.habittracker;
+
+import com.habittracker.dto.HabitRequest;
+import com.habittracker.dto.HabitResponse;
+import com.habittracker.entity.FrequencyType;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.HabitService;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Habit search through the in-memory index: ranking, case and accent folding, descriptions,
+// and that creates, renames and archives show up in the next search of an already built index.
+@SpringBootTest
+class HabitSearchTest {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private HabitService habitService;
+    
+    private Long userId;
+    private final Map<String, Long> habitIds = new HashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        userId = TestUsers.save(userRepository, "search").getId();
+        
+        create("Evening walk", "Around the park after dinner");
+        create("Walk", null);
+        create("Walking meditation", null);
+        create("Sidewalk chalk", null);
+        create("Stretch", "Ten minutes, then a short walk");
+        create("Read", "Café reading hour");
+    }
+    
+    @Test
+    void resultsAreRankedByWhereTheQueryMatches() {
+        // Whole name, name prefix, word in the name, inside the name, then the description
+        assertThat(search("walk")).containsExactly("Walk", "Walking meditation", "Evening walk", "Sidewalk chalk", "Stretch");
+    }
+    
+    @Test
+    void matchingIgnoresCaseAccentsAndExtraWhitespace() {
+        assertThat(search("  WALKING   Med ")).containsExactly("Walking meditation");
+        assertThat(search("cafe")).containsExactly("Read");
+        assertThat(search("Wa")).containsExactly("Walk", "Walking meditation", "Evening walk", "Sidewalk chalk", "Stretch");
+        assertThat(search("swim")).isEmpty();
+    }
+    
+    @Test
+    void searchFollowsCreatesUpdatesAndArchives() {
+        assertThat(search("run")).isEmpty();
+        
+        create("Morning run", null);
+        HabitRequest rename = new HabitRequest("Evening run", "Around the park after dinner");
+        rename.setFrequencyType(FrequencyType.DAILY);
+        habitService.updateHabit(habitIds.get("Evening walk"), rename, userId);
+        habitService.deleteHabit(habitIds.get("Walk"), userId);
+        
+        assertThat(search("run")).containsExactly("Evening run", "Morning run");
+        assertThat(search("walk")).containsExactly("Walking meditation", "Sidewalk chalk", "Stretch");
+    }
+    
+    private void create(String name, String description) {
+        habitIds.put(name, habitService.createHabit(new HabitRequest(name, description), userId).getId());
+    }
+    
+    private List<String> search(String query) {
+        return habitService.searchHabits(query, userId).stream().map(HabitResponse::getName).toList();
+    }
+}
@@ -0,0 +1,268 @@
+package com.habittracker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.entity.Habit;
+import com.habittracker.event.LiveUpdateEvent;
+import com.habittracker.service.LiveUpdateBroker;
+import com.habittracker.support.TestUsers;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Live update streams: reconnects replay what was missed or are told to resync, and a client that stops reading
+// is dropped without holding up the delivery to anyone else.
+@SpringBootTest(properties = {
+        "app.live.sender-threads=1",
+        "app.live.send-timeout=1s",
+        "app.live.buffer-size=2",
+        "app.live.replay-size=3",
+        "app.live.heartbeat-interval=1h"
+})
+@AutoConfigureMockMvc
+class LiveUpdateBrokerTest {
+    
+    private static final String STALLED_CLIENT_HEADER = "X-Test-Stalled-Client";
+    
+    // While set, writes to streams opened with STALLED_CLIENT_HEADER block like a client that stopped reading
+    private static volatile CountDownLatch stalledWrites;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private LiveUpdateBroker liveUpdateBroker;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @AfterEach
+    void tearDown() {
+        CountDownLatch stalled = stalledWrites;
+        stalledWrites = null;
+        if (stalled != null) {
+            stalled.countDown();
+        }
+    }
+    
+    @Test
+    void reconnectReplaysMissedEventsOrAsksForResync() throws Exception {
+        TestUser user = register();
+        MvcResult first = subscribe(get("/api/live"), user);
+        publish(user, 2);
+        List<String> ids = eventIds(awaitContent(first, content -> eventIds(content).size() == 2));
+        
+        MvcResult resumed = subscribe(get("/api/live").header("Last-Event-ID", ids.get(0)), user);
+        assertThat(eventIds(awaitContent(resumed, content -> content.contains("id:" + ids.get(1))))).containsExactly(ids.get(1));
+        
+        // Only the last three events are retained, so the first one no longer shows nothing was lost after it
+        publish(user, 3);
+        MvcResult tooOld = subscribe(get("/api/live").header("Last-Event-ID", ids.get(0)), user);
+        assertThat(awaitContent(tooOld, content -> content.contains("event:resync"))).doesNotContain("event:change");
+        
+        MvcResult unknown = subscribe(get("/api/live").header("Last-Event-ID", "not-an-id"), user);
+        awaitContent(unknown, content -> content.contains("event:resync"));
+    }
+    
+    @Test
+    void stalledClientIsDroppedWithoutDelayingOthers() throws Exception {
+        TestUser slow = register();
+        TestUser other = register();
+        double connections = connections();
+        subscribe(get("/api/live").header(STALLED_CLIENT_HEADER, "true"), slow);
+        MvcResult otherStream = subscribe(get("/api/live"), other);
+        assertThat(connections()).isEqualTo(connections + 2);
+        
+        stalledWrites = new CountDownLatch(1);
+        publish(slow, 1);
+        publish(other, 1);
+        
+        // Delivered while the only idle sender thread is blocked writing to the stalled client
+        awaitContent(otherStream, content -> content.contains("event:change"));
+        awaitConnections(connections + 1);
+    }
+    
+    @Test
+    void clientThatFallsABufferBehindIsDropped() throws Exception {
+        TestUser slow = register();
+        double connections = connections();
+        subscribe(get("/api/live").header(STALLED_CLIENT_HEADER, "true"), slow);
+        
+        stalledWrites = new CountDownLatch(1);
+        // Whether or not the first event is already being written, the next three overflow a buffer of two,
+        // and the client is dropped at once rather than after send-timeout
+        publish(slow, 4);
+        assertThat(connections()).isEqualTo(connections);
+    }
+    
+    @Test
+    void streamOpensOnceWithATicketAndNeverWithTheTokenInTheUrl() throws Exception {
+        TestUser user = register();
+        String ticket = objectMapper.readTree(mockMvc.perform(post("/api/live/ticket").header("Authorization", "Bearer " + user.token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("data").get("ticket").asText();
+        
+        mockMvc.perform(get("/api/live").param("ticket", ticket)).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/api/live").param("ticket", ticket)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/live").param("access_token", user.token)).andExpect(status().isForbidden());
+    }
+    
+    private TestUser register() throws Exception {
+        JsonNode registration = TestUsers.register(mockMvc, TestUsers.uniqueName("live"));
+        return new TestUser(registration.get("token").asText(), registration.get("id").asLong());
+    }
+    
+    private MvcResult subscribe(MockHttpServletRequestBuilder request, TestUser user) throws Exception {
+        return mockMvc.perform(request.header("Authorization", "Bearer " + user.token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+    
+    private void publish(TestUser user, int count) {
+        Habit habit = new Habit();
+        habit.setId(1L);
+        for (int i = 0; i < count; i++) {
+            liveUpdateBroker.onLiveUpdate(LiveUpdateEvent.forHabit(user.id, LiveUpdateEvent.Type.HABIT_UPDATED, habit));
+        }
+    }
+    
+    private double connections() {
+        return meterRegistry.get("app.live.connections").gauge().value();
+    }
+    
+    private void awaitConnections(double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (connections() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(connections()).isEqualTo(expected);
+    }
+    
+    private static String awaitContent(MvcResult stream, Predicate<String> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = stream.getResponse().getContentAsString();
+        while (!condition.test(content) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertThat(condition).accepts(content);
+        return content;
+    }
+    
+    private static List<String> eventIds(String content) {
+        return content.lines()
+                .filter(line -> line.startsWith("id:"))
+                .map(line -> line.substring(3))
+                .toList();
+    }
+    
+    private static class TestUser {
+        private final String token;
+        private final Long id;
+        
+        TestUser(String token, Long id) {
+            this.token = token;
+            this.id = id;
+        }
+    }
+    
+    @TestConfiguration
+    static class StalledClients {
+        
+        @Bean
+        FilterRegistrationBean<Filter> stalledClientFilter() {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+                if (((HttpServletRequest) request).getHeader(STALLED_CLIENT_HEADER) != null) {
+                    response = new StalledResponse((HttpServletResponse) response);
+                }
+                chain.doFilter(request, response);
+            });
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+    
+    private static class StalledResponse extends HttpServletResponseWrapper {
+        private ServletOutputStream outputStream;
+        
+        StalledResponse(HttpServletResponse response) {
+            super(response);
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        awaitReader();
+                        delegate.write(b);
+                    }
+                    
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        awaitReader();
+                        delegate.write(b, off, len);
+                    }
+                    
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+                    
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+        
+        // Like a blocking socket write, it ignores interrupts
+        private static void awaitReader() {
+            CountDownLatch stalled = stalledWrites;
+            boolean interrupted = false;
+            while (stalled != null) {
+                try {
+                    stalled.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.habittracker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+// Parallel analytics with a single free connection: the request must not hold one while its sections run,
+// or they all time out waiting for the pool and the dashboard comes back built from fallbacks.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:parallel-analytics-test",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=250",
+        "app.analytics.cache.enabled=false",
+        "app.analytics.parallel.enabled=true"
+})
+@AutoConfigureMockMvc
+class ParallelAnalyticsTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void sectionsGetConnectionsWhileTheRequestWaits() throws Exception {
+        String token = TestUsers.bearer(TestUsers.register(mockMvc, "parallel"));
+        mockMvc.perform(post("/api/habits").header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Walk\",\"frequencyType\":\"DAILY\",\"targetCount\":1}"));
+        
+        try (Connection held = dataSource.getConnection()) {
+            assertThat(held.isValid(1)).isTrue();
+            JsonNode analytics = data(mockMvc.perform(get("/api/analytics").header("Authorization", token))
+                    .andReturn().getResponse().getContentAsString());
+            
+            assertThat(analytics.has("unavailableSections")).isFalse();
+            assertThat(analytics.get("totalHabits").asLong()).isEqualTo(1);
+        }
+    }
+    
+    private JsonNode data(String body) throws Exception {
+        return objectMapper.readTree(body).get("data");
+    }
+}
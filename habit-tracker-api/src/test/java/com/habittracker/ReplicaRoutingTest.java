@@ -0,0 +1,155 @@
+package com.habittracker;
+
+import com.habittracker.dto.HabitRequest;
+import com.habittracker.dto.HabitResponse;
+import com.habittracker.entity.User;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.security.UserPrincipal;
+import com.habittracker.service.AnalyticsService;
+import com.habittracker.service.HabitService;
+import com.habittracker.service.ResourceVersionService;
+import com.habittracker.support.TestUsers;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Primary and replica are two separate H2 databases with nothing replicating between them, so which one a read
+// went to shows in its result: the replica is seeded directly with habits and a change counter the primary does not have.
+@SpringBootTest(properties = {
+        "app.datasource.replica.jdbc-url=jdbc:h2:mem:replica-routing-test",
+        "app.datasource.replica.read-your-writes-window=500ms",
+        "app.analytics.cache.enabled=false",
+        "app.analytics.parallel.enabled=true"
+})
+@ActiveProfiles("replica")
+class ReplicaRoutingTest {
+    
+    private static final long WINDOW_MILLIS = 500;
+    private static final List<String> REPLICA_HABITS = List.of("Replica habit A", "Replica habit B");
+    private static final long REPLICA_VERSION = 7;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private HabitService habitService;
+    
+    @Autowired
+    private AnalyticsService analyticsService;
+    
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() {
+        userId = createUser();
+        signIn(userId);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+    
+    @Test
+    void readOnlyServiceMethodsReadFromTheReplica() {
+        double replicaReads = routedConnections("replica", "read-only");
+        entityManagerFactory.getCache().evict(User.class, userId);
+        
+        assertThat(names(habitService.getUserHabits(userId))).containsExactlyInAnyOrderElementsOf(REPLICA_HABITS);
+        // The ETag version comes from the same database as the body it tags
+        assertThat(resourceVersionService.getVersion(userId)).isEqualTo(REPLICA_VERSION);
+        // The search index outlives replication lag and is built from the primary, which has none of these habits
+        assertThat(habitService.searchHabits("Replica", userId)).isEmpty();
+        // Nor is the user row the replica served kept in the second-level cache
+        assertThat(entityManagerFactory.getCache().contains(User.class, userId)).isFalse();
+        // The parallel analytics queries run on their own threads and follow the routing of the calling method
+        assertThat(analyticsService.getUserAnalytics(userId).getTotalHabits()).isEqualTo(2);
+        
+        assertThat(routedConnections("replica", "read-only")).isGreaterThan(replicaReads);
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge()).isNotNull();
+    }
+    
+    @Test
+    void ownWritesAreReadFromThePrimaryWithinTheWindow() throws InterruptedException {
+        habitService.createHabit(new HabitRequest("Primary habit", null), userId);
+        
+        assertThat(names(habitService.getUserHabits(userId))).containsExactly("Primary habit");
+        assertThat(resourceVersionService.getVersion(userId)).isEqualTo(1);
+        assertThat(names(habitService.searchHabits("Primary", userId))).containsExactly("Primary habit");
+        assertThat(analyticsService.getUserAnalytics(userId).getTotalHabits()).isEqualTo(1);
+        
+        // The window is per user: someone who did not write keeps reading from the replica
+        Long otherUserId = createUser();
+        signIn(otherUserId);
+        assertThat(names(habitService.getUserHabits(otherUserId))).containsExactlyInAnyOrderElementsOf(REPLICA_HABITS);
+        
+        signIn(userId);
+        Thread.sleep(WINDOW_MILLIS * 2);
+        assertThat(names(habitService.getUserHabits(userId))).containsExactlyInAnyOrderElementsOf(REPLICA_HABITS);
+    }
+    
+    // Same id on both sides; only the replica gets the seeded habits and change counter
+    private Long createUser() {
+        User user = TestUsers.save(userRepository, "replica");
+        
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        replica.update("INSERT INTO users (id, username, email, password, is_active, created_at) VALUES (?, ?, ?, ?, TRUE, ?)",
+                user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), now);
+        replica.update("INSERT INTO user_change_counters (user_id, version) VALUES (?, ?)", user.getId(), REPLICA_VERSION);
+        for (String name : REPLICA_HABITS) {
+            replica.update("INSERT INTO habits (user_id, name, frequency_type, target_count, is_active, streak_count, best_streak, created_at) "
+                    + "VALUES (?, ?, 'DAILY', 1, TRUE, 0, 0, ?)", user.getId(), name, now);
+        }
+        return user.getId();
+    }
+    
+    // Each sign-in stands for a new request, which makes its own routing decision
+    private void signIn(Long id) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        UserPrincipal principal = new UserPrincipal(id, "replica-user-" + id, "replica-user-" + id + "@example.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+    
+    private double routedConnections(String target, String reason) {
+        return meterRegistry.get("app.datasource.routing").tag("target", target).tag("reason", reason).counter().count();
+    }
+    
+    private static List<String> names(List<HabitResponse> habits) {
+        return habits.stream().map(HabitResponse::getName).toList();
+    }
+}
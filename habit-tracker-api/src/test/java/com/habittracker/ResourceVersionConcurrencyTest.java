@@ -0,0 +1,74 @@
+package com.habittracker;
+
+import com.habittracker.event.HabitDataChangedEvent;
+import com.habittracker.service.ResourceVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A user's two first writes both create the change counter before commit: the second must neither fail
+// nor roll back its write, and both must advance the version.
+@SpringBootTest
+class ResourceVersionConcurrencyTest {
+    
+    // The counter table has no foreign key, so ids no other test uses keep these rows apart
+    private static final AtomicLong USER_IDS = new AtomicLong(3_000_000);
+    
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void concurrentFirstWritesBothAdvanceTheVersion() throws Exception {
+        Long userId = USER_IDS.incrementAndGet();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        
+        // Called directly rather than published, so the first transaction can hold its new row uncommitted
+        Future<?> first = executor.submit(() -> transaction.executeWithoutResult(status -> {
+            resourceVersionService.onHabitDataChanged(new HabitDataChangedEvent(userId, null));
+            firstInserted.countDown();
+            await(commitFirst);
+        }));
+        assertThat(firstInserted.await(10, TimeUnit.SECONDS)).isTrue();
+        Future<?> second = executor.submit(() -> transaction.executeWithoutResult(status ->
+                resourceVersionService.onHabitDataChanged(new HabitDataChangedEvent(userId, null))));
+        Thread.sleep(300);
+        commitFirst.countDown();
+        
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        
+        assertThat(resourceVersionService.getVersion(userId)).isEqualTo(2);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
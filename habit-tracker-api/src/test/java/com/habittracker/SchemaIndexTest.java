@@ -0,0 +1,149 @@
+package com.habittracker;
+
+import com.habittracker.dto.BulkHabitEntryItem;
+import com.habittracker.dto.BulkHabitEntryRequest;
+import com.habittracker.dto.HabitEntryRequest;
+import com.habittracker.dto.HabitRequest;
+import com.habittracker.repository.HabitEntryRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.HabitStatsRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.BulkHabitEntryService;
+import com.habittracker.service.HabitEntryService;
+import com.habittracker.service.HabitService;
+import com.habittracker.support.SqlStatementCounter;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the SQL that the per-user repository queries actually send through EXPLAIN and checks the plan uses the
+// index added for it by the migrations, and that entry queries no longer join habits.
+// Plans follow table statistics, so the test has a database of its own rather than the one other tests fill.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:schema-index-test")
+@Import(SqlStatementCounter.class)
+class SchemaIndexTest {
+    
+    private static final int HABITS = 4;
+    private static final int DAYS = 10;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private HabitEntryRepository habitEntryRepository;
+    
+    @Autowired
+    private HabitStatsRepository habitStatsRepository;
+    
+    @Autowired
+    private HabitService habitService;
+    
+    @Autowired
+    private HabitEntryService habitEntryService;
+    
+    @Autowired
+    private BulkHabitEntryService bulkHabitEntryService;
+    
+    private Long userId;
+    private final LocalDate today = LocalDate.now();
+    
+    @BeforeEach
+    void setUp() {
+        userId = TestUsers.save(userRepository, "schema").getId();
+        
+        // Entries are written through both the single-entry and the bulk path
+        List<BulkHabitEntryItem> items = new ArrayList<>();
+        List<Long> habitIds = new ArrayList<>();
+        for (int h = 0; h < HABITS; h++) {
+            Long habitId = habitService.createHabit(new HabitRequest("Habit " + h, null), userId).getId();
+            habitIds.add(habitId);
+            habitEntryService.createHabitEntry(habitId, new HabitEntryRequest(today, 1), userId);
+            for (int d = 1; d < DAYS; d++) {
+                BulkHabitEntryItem item = new BulkHabitEntryItem();
+                item.setHabitId(habitId);
+                item.setEntryDate(today.minusDays(d));
+                item.setCompletionCount(1);
+                item.setIsCompleted(d % 3 != 0);
+                items.add(item);
+            }
+        }
+        BulkHabitEntryRequest request = new BulkHabitEntryRequest();
+        request.setEntries(items);
+        bulkHabitEntryService.importEntries(request, userId);
+        habitService.deleteHabit(habitIds.get(0), userId);
+    }
+    
+    @Test
+    void entriesCarryTheirHabitOwner() {
+        Long mismatched = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM habit_entries e JOIN habits h ON h.id = e.habit_id WHERE e.user_id <> h.user_id", Long.class);
+        Long owned = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM habit_entries WHERE user_id = ?", Long.class, userId);
+        
+        assertThat(mismatched).isZero();
+        assertThat(owned).isEqualTo(HABITS * DAYS);
+    }
+    
+    // The rollup rebuild's per-user entry aggregates
+    @Test
+    void userEntryQueriesUseTheUserDateIndex() {
+        String dailyCounts = explain(() -> habitEntryRepository.countAllCompletedEntriesByUserGroupedByDate(userId), userId);
+        String habitCounts = explain(() -> habitEntryRepository.countAllCompletedEntriesByUserGroupedByHabit(userId), userId);
+        
+        for (String plan : List.of(dailyCounts, habitCounts)) {
+            assertThat(plan).containsIgnoringCase("IDX_HABIT_ENTRIES_USER_DATE").doesNotContainIgnoringCase("HABITS");
+        }
+    }
+    
+    @Test
+    void activeHabitListingsUseTheUserActiveCreatedIndex() {
+        LocalDateTime cursor = LocalDateTime.now();
+        
+        String listing = explain(() -> habitRepository.findActiveHabitResponsesByUserId(userId), userId);
+        String page = explain(() -> habitRepository.findActiveHabitsPage(userId, Pageable.ofSize(2)), userId, 0, 2);
+        String nextPage = explain(() -> habitRepository.findActiveHabitsPageAfter(userId, cursor, Long.MAX_VALUE, Pageable.ofSize(2)),
+                userId, cursor, cursor, Long.MAX_VALUE, 0, 2);
+        
+        for (String plan : List.of(listing, page, nextPage)) {
+            assertThat(plan).containsIgnoringCase("IDX_HABITS_USER_ACTIVE_CREATED");
+        }
+    }
+    
+    @Test
+    void habitStatsByUserUseTheUserIndex() {
+        String plan = explain(() -> habitStatsRepository.findByUserId(userId), userId);
+        
+        assertThat(plan).containsIgnoringCase("IDX_HABIT_STATS_USER");
+    }
+    
+    // EXPLAINs the one query the repository call sent, binding the given values to its parameters in order.
+    // The plan depends on column statistics, which H2 only gathers on ANALYZE, so they are refreshed first.
+    private String explain(Runnable query, Object... parameters) {
+        jdbcTemplate.execute("ANALYZE");
+        sqlStatementCounter.reset();
+        query.run();
+        List<String> sent = sqlStatementCounter.preparedSql();
+        assertThat(sent).hasSize(1);
+        
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sent.get(0), String.class, parameters));
+    }
+}
@@ -0,0 +1,152 @@
+package com.habittracker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.support.SqlStatementCounter;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+// Every endpoint gets a fixed budget of JDBC round trips, measured against a user with several habits and
+// days of entries, so a query issued per habit, per entry or per day (or a surprise lazy load) fails the build.
+// The analytics cache is off so the full computation is measured; the principal cache is warmed by setUp.
+@SpringBootTest(properties = "app.analytics.cache.enabled=false")
+@AutoConfigureMockMvc
+@Import(SqlStatementCounter.class)
+class SqlStatementBudgetTest {
+    
+    private static final int HABITS = 5;
+    private static final int DAYS = 14;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private String username;
+    private String token;
+    private String refreshToken;
+    private List<Long> habitIds;
+    private Long entryId;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        username = TestUsers.uniqueName("budget");
+        JsonNode registration = TestUsers.register(mockMvc, username);
+        token = TestUsers.bearer(registration);
+        refreshToken = registration.get("refreshToken").asText();
+        
+        habitIds = new ArrayList<>();
+        for (int h = 0; h < HABITS; h++) {
+            habitIds.add(data(mockMvc.perform(authorized(post("/api/habits"))
+                    .content(json("{'name':'Habit %d','frequencyType':'DAILY','targetCount':1}", h)))
+                    .andReturn()).get("id").asLong());
+        }
+        
+        StringBuilder entries = new StringBuilder();
+        for (Long habitId : habitIds) {
+            for (int d = 0; d < DAYS; d++) {
+                entries.append(entries.length() > 0 ? "," : "")
+                        .append(json("{'habitId':%d,'entryDate':'%s','completionCount':1,'isCompleted':%b}", habitId, LocalDate.now().minusDays(d), d % 4 != 3));
+            }
+        }
+        mockMvc.perform(authorized(post("/api/entries/bulk")).content("{\"entries\":[" + entries + "]}")).andReturn();
+        
+        entryId = data(mockMvc.perform(authorized(get("/api/habits/" + habitIds.get(0) + "/entries"))).andReturn())
+                .get(0).get("id").asLong();
+    }
+    
+    @Test
+    void authEndpoints() throws Exception {
+        withinBudget(3, post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'username':'%s','email':'%s@example.com','password':'%s'}", username + "x", username + "x", TestUsers.PASSWORD)));
+        withinBudget(3, post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'usernameOrEmail':'%s','password':'%s'}", username, TestUsers.PASSWORD)));
+        withinBudget(1, post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'refreshToken':'%s'}", refreshToken)));
+    }
+    
+    @Test
+    void habitEndpoints() throws Exception {
+        Long habitId = habitIds.get(0);
+        withinBudget(4, authorized(post("/api/habits")).content(json("{'name':'Another','frequencyType':'DAILY','targetCount':1}")));
+        withinBudget(3, authorized(get("/api/habits")));
+        withinBudget(3, authorized(get("/api/habits?limit=2")));
+        withinBudget(2, authorized(get("/api/habits/" + habitId)));
+        withinBudget(3, authorized(get("/api/habits/search?name=Habit")));
+        withinBudget(4, authorized(put("/api/habits/" + habitId)).content(json("{'name':'Renamed','frequencyType':'DAILY','targetCount':1}")));
+        withinBudget(3, authorized(delete("/api/habits/" + habitIds.get(1))));
+    }
+    
+    @Test
+    void habitEntryEndpoints() throws Exception {
+        Long habitId = habitIds.get(0);
+        String entries = "/api/habits/" + habitId + "/entries";
+        withinBudget(9, authorized(post(entries))
+                .content(json("{'entryDate':'%s','completionCount':1,'isCompleted':true}", LocalDate.now().minusDays(DAYS + 1))));
+        withinBudget(3, authorized(get(entries)));
+        withinBudget(3, authorized(get(entries + "?startDate=" + LocalDate.now().minusDays(7) + "&endDate=" + LocalDate.now())));
+        withinBudget(3, authorized(get(entries + "?limit=5")));
+        withinBudget(8, authorized(put(entries + "/" + entryId))
+                .content(json("{'entryDate':'%s','completionCount':1,'isCompleted':false}", LocalDate.now())));
+        withinBudget(3, authorized(delete(entries + "/" + entryId)));
+    }
+    
+    @Test
+    void analyticsEndpoints() throws Exception {
+        withinBudget(6, authorized(get("/api/analytics")));
+        withinBudget(4, authorized(get("/api/analytics/habits/" + habitIds.get(0))));
+    }
+    
+    @Test
+    void unchangedPollsCostOneLookup() throws Exception {
+        for (String path : List.of("/api/habits", "/api/habits/" + habitIds.get(0) + "/entries", "/api/analytics")) {
+            String etag = mockMvc.perform(authorized(get(path))).andReturn().getResponse().getHeader("ETag");
+            MvcResult result = withinBudget(1, authorized(get(path)).header("If-None-Match", etag));
+            assertThat(result.getResponse().getStatus()).isEqualTo(304);
+        }
+    }
+    
+    private MvcResult withinBudget(int budget, MockHttpServletRequestBuilder request) throws Exception {
+        sqlStatementCounter.reset();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        int statements = sqlStatementCounter.count();
+        
+        MockHttpServletRequest sent = result.getRequest();
+        String endpoint = sent.getMethod() + " " + sent.getRequestURI();
+        assertThat(result.getResponse().getStatus()).as("status of %s", endpoint).isLessThan(400);
+        assertThat(statements).as("SQL statements for %s", endpoint).isLessThanOrEqualTo(budget);
+        return result;
+    }
+    
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", token).contentType(MediaType.APPLICATION_JSON);
+    }
+    
+    private JsonNode data(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("data");
+    }
+    
+    private static String json(String template, Object... args) {
+        return String.format(template, args).replace('\'', '"');
+    }
+}
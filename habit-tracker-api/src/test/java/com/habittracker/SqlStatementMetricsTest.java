@@ -0,0 +1,78 @@
+package com.habittracker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.support.TestUsers;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The repository tag of app.sql.statements for a check-in: selects belong to the query that ran them, and the
+// entity changes Hibernate writes at flush time are tagged "flush" rather than the query that triggered the flush.
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementMetricsTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void checkInWritesAreTaggedByRepositoryMethodOrFlush() throws Exception {
+        String token = TestUsers.bearer(TestUsers.register(mockMvc, "sqlmetrics"));
+        long habitId = data(mockMvc.perform(post("/api/habits").header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Read\",\"frequencyType\":\"DAILY\",\"targetCount\":1}"))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        
+        Map<String, Double> before = statementCounts();
+        mockMvc.perform(post("/api/habits/" + habitId + "/entries").header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"entryDate\":\"" + LocalDate.now() + "\",\"completionCount\":1,\"isCompleted\":true}"))
+                .andExpect(status().isCreated());
+        Map<String, Double> checkIn = new HashMap<>();
+        statementCounts().forEach((key, count) -> {
+            double delta = count - before.getOrDefault(key, 0.0);
+            if (delta > 0) {
+                checkIn.put(key, delta);
+            }
+        });
+        
+        // The entry is inserted by save itself (identity ids), the streak update to the habit is flushed at commit
+        assertThat(checkIn).containsKey("HabitEntryRepository.save|insert");
+        assertThat(checkIn).containsKey("flush|update");
+        assertThat(checkIn).containsKey("HabitEntryRepository.findByHabitAndEntryDate|select");
+        assertThat(checkIn).containsEntry("UserChangeCounterRepository.incrementVersion|update", 1.0);
+        // No query method is charged with writes it did not issue
+        assertThat(checkIn.keySet())
+                .filteredOn(key -> !key.endsWith("|select"))
+                .allMatch(key -> key.startsWith("flush|") || key.contains(".save") || key.contains(".increment"), "write tagged by its source");
+    }
+    
+    private Map<String, Double> statementCounts() {
+        Map<String, Double> counts = new HashMap<>();
+        for (Counter counter : meterRegistry.find("app.sql.statements").counters()) {
+            counts.put(counter.getId().getTag("repository") + "|" + counter.getId().getTag("type"), counter.count());
+        }
+        return counts;
+    }
+    
+    private JsonNode data(String body) throws Exception {
+        return objectMapper.readTree(body).get("data");
+    }
+}
@@ -0,0 +1,96 @@
+package com.habittracker;
+
+import com.habittracker.entity.HabitEntry;
+import com.habittracker.entity.HabitStats;
+import com.habittracker.entity.UserDailyStats;
+import com.habittracker.service.StatsRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two check-ins that both create the user's row for the day (and the habit's totals) must both count:
+// the second insert loses on the unique key and has to fall back to incrementing the first one's row.
+@SpringBootTest
+class StatsRollupConcurrencyTest {
+    
+    // Rollup rows have no foreign keys, so ids no other test uses keep these rows apart
+    private static final AtomicLong IDS = new AtomicLong(2_000_000);
+    
+    @Autowired
+    private StatsRollupService statsRollupService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void concurrentFirstCompletionsOfADayAreBothCounted() throws Exception {
+        Long userId = IDS.incrementAndGet();
+        Long habitId = IDS.incrementAndGet();
+        LocalDate today = LocalDate.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        
+        // The first transaction creates the rows and holds them uncommitted while the second one tries the same
+        Future<?> first = executor.submit(() -> transaction.executeWithoutResult(status -> {
+            statsRollupService.addEntry(userId, habitId, completedEntry(today, 2));
+            firstInserted.countDown();
+            await(commitFirst);
+        }));
+        assertThat(firstInserted.await(10, TimeUnit.SECONDS)).isTrue();
+        Future<?> second = executor.submit(() -> transaction.executeWithoutResult(status ->
+                statsRollupService.addEntry(userId, habitId, completedEntry(today, 3))));
+        Thread.sleep(300);
+        commitFirst.countDown();
+        
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        
+        List<UserDailyStats> days = statsRollupService.getUserDailyStats(userId, today, today);
+        assertThat(days).hasSize(1);
+        assertThat(days.get(0).getCompletedCount()).isEqualTo(2);
+        assertThat(days.get(0).getCompletionSum()).isEqualTo(5);
+        
+        List<HabitStats> habits = statsRollupService.getHabitStats(userId);
+        assertThat(habits).hasSize(1);
+        assertThat(habits.get(0).getCompletedCount()).isEqualTo(2);
+        assertThat(habits.get(0).getCompletionSum()).isEqualTo(5);
+    }
+    
+    private static HabitEntry completedEntry(LocalDate date, int completionCount) {
+        HabitEntry entry = new HabitEntry();
+        entry.setEntryDate(date);
+        entry.setCompletionCount(completionCount);
+        entry.setIsCompleted(true);
+        return entry;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.habittracker;
+
+import com.habittracker.dto.BulkHabitEntryItem;
+import com.habittracker.dto.BulkHabitEntryRequest;
+import com.habittracker.dto.HabitEntryRequest;
+import com.habittracker.dto.HabitRequest;
+import com.habittracker.entity.Habit;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.service.BulkHabitEntryService;
+import com.habittracker.service.CompletionCalendarService;
+import com.habittracker.service.HabitEntryService;
+import com.habittracker.service.HabitService;
+import com.habittracker.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The streak is kept up to date incrementally from single-entry writes; each case checks the tracked run,
+// the current streak and the best streak after writes that merge or split runs.
+@SpringBootTest
+class StreakServiceTest {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private HabitRepository habitRepository;
+    
+    @Autowired
+    private HabitService habitService;
+    
+    @Autowired
+    private HabitEntryService habitEntryService;
+    
+    @Autowired
+    private BulkHabitEntryService bulkHabitEntryService;
+    
+    @Autowired
+    private CompletionCalendarService completionCalendarService;
+    
+    private final LocalDate today = LocalDate.now();
+    private Long userId;
+    private Long habitId;
+    
+    @BeforeEach
+    void setUp() {
+        userId = TestUsers.save(userRepository, "streak").getId();
+        habitId = habitService.createHabit(new HabitRequest("Streak habit", null), userId).getId();
+    }
+    
+    @Test
+    void backdatedDayMergesTheTrackedRunWithTheOneBeforeIt() {
+        complete(today.minusDays(4));
+        complete(today.minusDays(3));
+        complete(today.minusDays(1));
+        complete(today);
+        assertStreak(today.minusDays(1), today, 2, 2);
+        
+        complete(today.minusDays(2));
+        assertStreak(today.minusDays(4), today, 5, 5);
+    }
+    
+    @Test
+    void removedInnerDaySplitsTheRunAndKeepsTheBest() {
+        List<Long> entryIds = new ArrayList<>();
+        for (int d = 4; d >= 0; d--) {
+            entryIds.add(complete(today.minusDays(d)));
+        }
+        assertStreak(today.minusDays(4), today, 5, 5);
+        
+        habitEntryService.deleteHabitEntry(habitId, entryIds.get(2), userId);
+        assertStreak(today.minusDays(1), today, 2, 5);
+        
+        habitEntryService.deleteHabitEntry(habitId, entryIds.get(4), userId);
+        assertStreak(today.minusDays(1), today.minusDays(1), 1, 5);
+    }
+    
+    @Test
+    void backdatedDayJoiningTwoOlderRunsRaisesTheBest() {
+        // Older runs of 70 and 5 days, the first one spanning calendar words, and a tracked run of 2
+        importCompleted(today.minusDays(150), today.minusDays(81));
+        importCompleted(today.minusDays(79), today.minusDays(75));
+        complete(today.minusDays(1));
+        complete(today);
+        assertThat(habit().getBestStreak()).isLessThan(76);
+        
+        complete(today.minusDays(80));
+        assertStreak(today.minusDays(1), today, 2, 76);
+    }
+    
+    @Test
+    void futureDayCountsOnceItHasArrived() {
+        complete(today.minusDays(3));
+        complete(today.plusDays(1));
+        assertStreak(today.minusDays(3), today.minusDays(3), 0, 1);
+        
+        // A day entered while it was still in the future: in the calendar, but skipped by the streak at the time
+        completionCalendarService.recordChange(habitId, null, false, today.minusDays(2), true);
+        
+        complete(today.minusDays(1));
+        assertStreak(today.minusDays(3), today.minusDays(1), 3, 3);
+    }
+    
+    private Long complete(LocalDate date) {
+        return habitEntryService.createHabitEntry(habitId, new HabitEntryRequest(date, 1), userId).getId();
+    }
+    
+    private void importCompleted(LocalDate from, LocalDate to) {
+        List<BulkHabitEntryItem> items = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            BulkHabitEntryItem item = new BulkHabitEntryItem();
+            item.setHabitId(habitId);
+            item.setEntryDate(date);
+            item.setCompletionCount(1);
+            item.setIsCompleted(true);
+            items.add(item);
+        }
+        BulkHabitEntryRequest request = new BulkHabitEntryRequest();
+        request.setEntries(items);
+        bulkHabitEntryService.importEntries(request, userId);
+    }
+    
+    private Habit habit() {
+        return habitRepository.findById(habitId).orElseThrow();
+    }
+    
+    private void assertStreak(LocalDate start, LocalDate end, int current, int best) {
+        Habit habit = habit();
+        assertThat(habit.getStreakStartDate()).as("run start").isEqualTo(start);
+        assertThat(habit.getStreakEndDate()).as("run end").isEqualTo(end);
+        assertThat(habit.getStreakCount()).as("current streak").isEqualTo(current);
+        assertThat(habit.getBestStreak()).as("best streak").isEqualTo(best);
+    }
+}
@@ -0,0 +1,75 @@
+package com.habittracker.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Wraps the application DataSource so every JDBC round trip is counted: each execute*, executeBatch included,
+// on any statement from any connection. JdbcTemplate work is counted as well as Hibernate's.
+// The SQL of every prepared statement is kept too, so a test can EXPLAIN exactly what a repository method sent.
+public class SqlStatementCounter implements BeanPostProcessor {
+    
+    private final AtomicInteger statements = new AtomicInteger();
+    
+    private final List<String> preparedSql = new CopyOnWriteArrayList<>();
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return wrap(DataSource.class, bean);
+        }
+        return bean;
+    }
+    
+    public void reset() {
+        statements.set(0);
+        preparedSql.clear();
+    }
+    
+    public int count() {
+        return statements.get();
+    }
+    
+    public List<String> preparedSql() {
+        return List.copyOf(preparedSql);
+    }
+    
+    private <T> T wrap(Class<T> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> invoke(target, method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+    
+    private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        if (target instanceof Statement && method.getName().startsWith("execute")) {
+            statements.incrementAndGet();
+        }
+        if (target instanceof Connection && method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+            preparedSql.add(sql);
+        }
+        
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        
+        // Connections and statements handed out are wrapped too, as the interface the method declares
+        if (result instanceof Connection && method.getReturnType() == Connection.class) {
+            return wrap(Connection.class, result);
+        }
+        if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+            return wrap(method.getReturnType(), result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.habittracker.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.entity.User;
+import com.habittracker.repository.UserRepository;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Users for tests that share an application context, and so a database: names from uniqueName never collide,
+// and every user has the same password.
+public final class TestUsers {
+    
+    public static final String PASSWORD = "secret123";
+    
+    private static final AtomicInteger USERS = new AtomicInteger();
+    
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    
+    private TestUsers() {
+    }
+    
+    public static String uniqueName(String prefix) {
+        return prefix + USERS.incrementAndGet();
+    }
+    
+    // Straight into the repository, for tests that call services rather than endpoints
+    public static User save(UserRepository userRepository, String prefix) {
+        String username = uniqueName(prefix);
+        return userRepository.save(new User(username, username + "@example.com", PASSWORD));
+    }
+    
+    // Through POST /api/auth/register; returns the response data (token, refreshToken, id, username, ...)
+    public static JsonNode register(MockMvc mockMvc, String username) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return OBJECT_MAPPER.readTree(body).get("data");
+    }
+    
+    public static String bearer(JsonNode registration) {
+        return "Bearer " + registration.get("token").asText();
+    }
+}